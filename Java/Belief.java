@@ -0,0 +1,553 @@
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Works out how likely each seat is to hold each card, and each card to be in the solution,
+ * from what one player has seen, as recorded by their Deduction.
+ *
+ * Every deal of the cards, solution included, starts equally likely, as Game deals them.
+ * A deal is then weighed by Deduction.weigh: zero if it contradicts anything seen, and otherwise
+ * the chance that the refuters would have shown this player the cards they did. The probability
+ * of a seat holding a card is the weight of the deals in which it does over the weight of them all.
+ *
+ * When few enough deals are consistent with the hard deductions, every one is enumerated.
+ * Otherwise deals are drawn by sequential importance sampling: a possible solution is picked,
+ * then each remaining card is dealt to a seat that could hold it, in proportion to the room left
+ * in that seat's hand, and the sample is weighted to correct for the choices. Samples are kept
+ * between refreshes and only reweighed against the events seen since, until too few carry
+ * any weight and a fresh set is drawn. Enumerated deals are likewise only reweighed, as new events
+ * can only rule deals out. Both enumeration and sampling are split across the common ForkJoinPool,
+ * and a refresh can be given a deadline, for callers with a time budget. The weighted deals are kept and can be read back, for anything that needs more
+ * than the matrix, such as GuessAdvisor.
+ */
+public final class Belief {
+    /**
+     * The most deals to enumerate, and the number of samples to draw otherwise.
+     */
+    public static final int EXACT_LIMIT = 100_000;
+    public static final int SAMPLES = 20_000;
+
+    /**
+     * The fraction of the samples that must effectively still carry weight before a fresh set is drawn.
+     */
+    private static final double RESAMPLE_FRACTION = 0.25;
+
+    private static final long ALL_CARDS = (1L << Card.COUNT) - 1;
+
+    private final Deduction deduction;
+    private final RandomSource random;
+    private int exactLimit;
+    private final int sampleCount;
+    private final int threads;
+    private final int seats;
+
+    /**
+     * The probabilities, by seat then card id, with the solution as the last row.
+     */
+    private final double[][] matrix;
+
+    /**
+     * The deals the matrix was worked out from, each seats + 1 masks long: the hands in seat order,
+     * then the solution, with their weights. Either every consistent deal, or the kept samples.
+     */
+    private long[] deals;
+    private double[] weights;
+    private int dealCount = 0;
+    private boolean exact = false;
+
+    /**
+     * The number of the Deduction's events the matrix accounts for, or -1 before the first refresh.
+     */
+    private int seenEvents = -1;
+
+    /**
+     * Constructor for the Belief class, enumerating up to EXACT_LIMIT deals, otherwise
+     * drawing SAMPLES samples, split across every core.
+     *
+     * @param deduction the engine recording what the player has seen
+     * @param random the source of randomness for sampling
+     */
+    public Belief(Deduction deduction, RandomSource random) {
+        this(deduction, random, EXACT_LIMIT, SAMPLES, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for the Belief class.
+     *
+     * @param deduction the engine recording what the player has seen
+     * @param random the source of randomness for sampling
+     * @param exactLimit the most deals to enumerate, beyond which deals are sampled
+     * @param sampleCount the number of samples to draw
+     * @param threads the number of parts to split the work into
+     */
+    public Belief(Deduction deduction, RandomSource random, int exactLimit, int sampleCount, int threads) {
+        this.deduction = deduction;
+        this.random = random;
+        this.exactLimit = exactLimit;
+        this.sampleCount = sampleCount;
+        this.threads = Math.max(1, threads);
+        this.seats = deduction.getSeats();
+        this.matrix = new double[seats + 1][Card.COUNT];
+    }
+
+    /**
+     * Brings the matrix up to date with everything the Deduction has seen.
+     * Does nothing if nothing has been seen since the last refresh.
+     */
+    public void refresh() {
+        refresh(Long.MAX_VALUE);
+    }
+
+    /**
+     * Brings the matrix up to date with everything the Deduction has seen, stopping early
+     * at a deadline. Sampling that runs out of time keeps the samples drawn so far.
+     * Enumeration that runs out of time is abandoned, leaving the matrix and deals as they were,
+     * and deals that many are sampled instead from then on.
+     *
+     * @param deadline the System.nanoTime() by which to stop
+     * @return true if the matrix is up to date, false if it was left as it was
+     */
+    public boolean refresh(long deadline) {
+        int events = deduction.getEventCount();
+        if (events == seenEvents) {
+            return true;
+        }
+        // Asking for the solutions propagates the Deduction, so the parts below only ever read it
+        long[] solutions = possibleSolutions();
+        if (solutions.length == 0) {
+            dealCount = 0;
+        } else if (exact && deals != null) {
+            reweigh(seenEvents);
+            compact();
+        } else {
+            double count = solutions.length * countDeals(solutions[0]);
+            if (count <= exactLimit) {
+                if (!enumerate(solutions, deadline)) {
+                    exactLimit = (int) count - 1;
+                    return false;
+                }
+            } else if (deals == null || reweigh(seenEvents) < RESAMPLE_FRACTION * sampleCount) {
+                // Draw afresh unless the kept samples, reweighed, still carry enough weight
+                sample(solutions, deadline);
+            }
+        }
+        tally();
+        seenEvents = events;
+        return true;
+    }
+
+    /**
+     * Gets the probability that a seat holds a card, as of the last refresh.
+     *
+     * @param seat the seat
+     * @param card the card id
+     * @return the probability
+     */
+    public double getProbability(int seat, int card) {
+        return matrix[seat][card];
+    }
+
+    /**
+     * Gets the probability that a card is in the solution, as of the last refresh.
+     *
+     * @param card the card id
+     * @return the probability
+     */
+    public double getSolutionProbability(int card) {
+        return matrix[seats][card];
+    }
+
+    /**
+     * Checks whether the matrix was last worked out by enumerating every deal, rather than sampling.
+     *
+     * @return true if it is exact
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Gets the number of deals the matrix was last worked out from.
+     *
+     * @return the count
+     */
+    public int getDealCount() {
+        return dealCount;
+    }
+
+    /**
+     * Gets a seat's hand in one of the deals.
+     *
+     * @param deal the deal index
+     * @param seat the seat
+     * @return the card mask
+     */
+    public long getHand(int deal, int seat) {
+        return deals[deal * (seats + 1) + seat];
+    }
+
+    /**
+     * Gets the solution in one of the deals.
+     *
+     * @param deal the deal index
+     * @return the card mask
+     */
+    public long getSolution(int deal) {
+        return deals[deal * (seats + 1) + seats];
+    }
+
+    /**
+     * Gets the weight of one of the deals, relative to the others.
+     *
+     * @param deal the deal index
+     * @return the weight, which is zero for a sample that has been ruled out
+     */
+    public double getWeight(int deal) {
+        return weights[deal];
+    }
+
+    /**
+     * Gets the Deduction this belief is worked out from.
+     *
+     * @return the engine
+     */
+    public Deduction getDeduction() {
+        return deduction;
+    }
+
+    /**
+     * Gets the solutions the Deduction still allows.
+     *
+     * @return the mask of each solution's three cards
+     */
+    private long[] possibleSolutions() {
+        long[] solutions = new long[deduction.getSolutionCount()];
+        int count = 0;
+        for (int s = 0; s < Deduction.SOLUTIONS; s++) {
+            if (deduction.isPossibleSolution(Deduction.cardsOf(s))) {
+                solutions[count++] = Deduction.cardsOf(s);
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * Counts the ways of dealing the cards not known to be held into the room left in each hand,
+     * ignoring who cannot hold what. Every possible solution leaves the same number of ways.
+     */
+    private double countDeals(long solution) {
+        double ways = 1;
+        int cards = Long.bitCount(ALL_CARDS & ~solution & ~held());
+        for (int seat = 0; seat < seats; seat++) {
+            int room = deduction.getHandSize(seat) - Long.bitCount(deduction.getHas(seat));
+            for (int i = 0; i < room; i++) {
+                ways *= (double) cards-- / (i + 1);
+            }
+        }
+        return ways;
+    }
+
+    /**
+     * Gets the cards known to be held by anyone.
+     */
+    private long held() {
+        long held = 0;
+        for (int seat = 0; seat < seats; seat++) {
+            held |= deduction.getHas(seat);
+        }
+        return held;
+    }
+
+    /**
+     * Lists every consistent deal for each possible solution. The solutions are split
+     * between the parts, each of which lists its own deals, and the lists are joined.
+     *
+     * @return false if the deadline passed first, leaving the deals as they were
+     */
+    private boolean enumerate(long[] solutions, long deadline) {
+        List<Callable<Dealer>> parts = new ArrayList<>();
+        int partCount = Math.min(threads, solutions.length);
+        for (int part = 0; part < partCount; part++) {
+            int first = part;
+            parts.add(() -> {
+                Dealer dealer = new Dealer(deadline);
+                for (int i = first; i < solutions.length && !dealer.late; i += partCount) {
+                    dealer.enumerate(solutions[i]);
+                }
+                return dealer;
+            });
+        }
+        List<Dealer> dealers = run(parts);
+        int total = 0;
+        for (Dealer dealer : dealers) {
+            if (dealer.late) {
+                return false;
+            }
+            total += dealer.found;
+        }
+        deals = new long[total * (seats + 1)];
+        weights = new double[total];
+        dealCount = 0;
+        for (Dealer dealer : dealers) {
+            System.arraycopy(dealer.foundDeals, 0, deals, dealCount * (seats + 1), dealer.found * (seats + 1));
+            System.arraycopy(dealer.foundWeights, 0, weights, dealCount, dealer.found);
+            dealCount += dealer.found;
+        }
+        exact = true;
+        return true;
+    }
+
+    /**
+     * Draws a fresh set of weighted samples, each part filling its own share.
+     * Samples a part has no time left to draw keep a weight of zero.
+     */
+    private void sample(long[] solutions, long deadline) {
+        long[] samples = new long[sampleCount * (seats + 1)];
+        weights = new double[sampleCount];
+        deals = samples;
+        dealCount = sampleCount;
+        exact = false;
+        List<Callable<Dealer>> parts = new ArrayList<>();
+        for (int part = 0; part < threads; part++) {
+            int from = sampleCount * part / threads;
+            int to = sampleCount * (part + 1) / threads;
+            RandomSource partRandom = random.split();
+            parts.add(() -> {
+                Dealer dealer = new Dealer(deadline);
+                for (int i = from; i < to && !dealer.isLate(i - from); i++) {
+                    weights[i] = dealer.sample(solutions, partRandom, samples, i * (seats + 1));
+                }
+                return null;
+            });
+        }
+        run(parts);
+    }
+
+    /**
+     * Weighs the kept samples against the events seen since they were last weighed.
+     *
+     * @return the effective number of samples left
+     */
+    private double reweigh(int from) {
+        long[] hands = new long[seats];
+        double sum = 0;
+        double squares = 0;
+        for (int i = 0; i < dealCount; i++) {
+            if (weights[i] != 0) {
+                System.arraycopy(deals, i * (seats + 1), hands, 0, seats);
+                weights[i] *= deduction.weigh(hands, deals[i * (seats + 1) + seats], from);
+                sum += weights[i];
+                squares += weights[i] * weights[i];
+            }
+        }
+        return squares == 0 ? 0 : sum * sum / squares;
+    }
+
+    /**
+     * Drops the deals that have been ruled out, keeping the rest in order.
+     */
+    private void compact() {
+        int kept = 0;
+        for (int i = 0; i < dealCount; i++) {
+            if (weights[i] != 0) {
+                System.arraycopy(deals, i * (seats + 1), deals, kept * (seats + 1), seats + 1);
+                weights[kept++] = weights[i];
+            }
+        }
+        dealCount = kept;
+    }
+
+    /**
+     * Adds up the weighted deals into the matrix.
+     */
+    private void tally() {
+        clear();
+        for (int i = 0; i < dealCount; i++) {
+            if (weights[i] != 0) {
+                for (int row = 0; row <= seats; row++) {
+                    for (long cards = deals[i * (seats + 1) + row]; cards != 0; cards &= cards - 1) {
+                        matrix[row][Long.numberOfTrailingZeros(cards)] += weights[i];
+                    }
+                }
+            }
+        }
+        normalise();
+    }
+
+    private void clear() {
+        for (double[] row : matrix) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    /**
+     * Divides every total by the total weight, which is the weight in the solution row
+     * of any one type of card.
+     */
+    private void normalise() {
+        double total = 0;
+        for (long cards = GameState.CHARACTER_CARDS; cards != 0; cards &= cards - 1) {
+            total += matrix[seats][Long.numberOfTrailingZeros(cards)];
+        }
+        if (total > 0) {
+            for (double[] row : matrix) {
+                for (int card = 0; card < Card.COUNT; card++) {
+                    row[card] /= total;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the parts of a refresh, inline when there is only one.
+     */
+    private static <T> List<T> run(List<Callable<T>> parts) {
+        List<T> results = new ArrayList<>();
+        try {
+            if (parts.size() == 1) {
+                results.add(parts.get(0).call());
+                return results;
+            }
+            for (Future<T> result : ForkJoinPool.commonPool().invokeAll(parts)) {
+                results.add(result.get());
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Belief refresh failed", e);
+        }
+        return results;
+    }
+
+    /**
+     * Deals cards for one part of a refresh, with its own working arrays and list of deals found.
+     * The clock is only read every CLOCK_INTERVAL deals, and once it is past the deadline, late is set.
+     */
+    private final class Dealer {
+        private static final int CLOCK_INTERVAL = 64;
+
+        private final long deadline;
+        private boolean late = false;
+        private int dealt = 0;
+        private final long[] hands = new long[seats];
+        private final int[] room = new int[seats];
+        private final long[] hasNot = new long[seats];
+        private final int[] cards = new int[Card.COUNT];
+        private long[] foundDeals = new long[256 * (seats + 1)];
+        private double[] foundWeights = new double[256];
+        private int found = 0;
+        private int cardCount;
+        private long solution;
+
+        Dealer(long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Checks whether the deadline has passed, reading the clock every CLOCK_INTERVAL calls.
+         */
+        boolean isLate(int count) {
+            if (!late && deadline != Long.MAX_VALUE && count % CLOCK_INTERVAL == 0) {
+                late = System.nanoTime() > deadline;
+            }
+            return late;
+        }
+
+        /**
+         * Sets the hands to the cards known to be held, and lists the cards left to deal.
+         */
+        private void start(long solution) {
+            this.solution = solution;
+            long held = 0;
+            for (int seat = 0; seat < seats; seat++) {
+                hands[seat] = deduction.getHas(seat);
+                hasNot[seat] = deduction.getHasNot(seat);
+                room[seat] = deduction.getHandSize(seat) - Long.bitCount(hands[seat]);
+                held |= hands[seat];
+            }
+            cardCount = 0;
+            for (long left = ALL_CARDS & ~solution & ~held; left != 0; left &= left - 1) {
+                cards[cardCount++] = Long.numberOfTrailingZeros(left);
+            }
+        }
+
+        /**
+         * Lists every consistent deal with the given solution.
+         */
+        void enumerate(long solution) {
+            start(solution);
+            deal(0);
+        }
+
+        private void deal(int next) {
+            if (late) {
+                return;
+            }
+            if (next == cardCount) {
+                isLate(++dealt);
+                double weight = deduction.weigh(hands, solution, 0);
+                if (weight != 0) {
+                    if (found == foundWeights.length) {
+                        foundDeals = Arrays.copyOf(foundDeals, foundDeals.length * 2);
+                        foundWeights = Arrays.copyOf(foundWeights, found * 2);
+                    }
+                    System.arraycopy(hands, 0, foundDeals, found * (seats + 1), seats);
+                    foundDeals[found * (seats + 1) + seats] = solution;
+                    foundWeights[found++] = weight;
+                }
+                return;
+            }
+            long card = 1L << cards[next];
+            for (int seat = 0; seat < seats; seat++) {
+                if (room[seat] > 0 && (hasNot[seat] & card) == 0) {
+                    hands[seat] |= card;
+                    room[seat]--;
+                    deal(next + 1);
+                    room[seat]++;
+                    hands[seat] &= ~card;
+                }
+            }
+        }
+
+        /**
+         * Draws one deal into the samples, and returns its weight.
+         */
+        double sample(long[] solutions, RandomSource random, long[] samples, int offset) {
+            start(solutions[random.nextInt(solutions.length)]);
+            // Deal the cards in a random order, so that no card is always dealt last into whatever room is left
+            for (int i = cardCount - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int card = cards[i];
+                cards[i] = cards[j];
+                cards[j] = card;
+            }
+            double weight = 1;
+            for (int i = 0; i < cardCount; i++) {
+                long card = 1L << cards[i];
+                int total = 0;
+                for (int seat = 0; seat < seats; seat++) {
+                    if ((hasNot[seat] & card) == 0) {
+                        total += room[seat];
+                    }
+                }
+                if (total == 0) {
+                    return 0;
+                }
+                int pick = random.nextInt(total);
+                int seat = 0;
+                while ((hasNot[seat] & card) != 0 || pick >= room[seat]) {
+                    if ((hasNot[seat] & card) == 0) {
+                        pick -= room[seat];
+                    }
+                    seat++;
+                }
+                weight *= (double) total / room[seat];
+                hands[seat] |= card;
+                room[seat]--;
+            }
+            System.arraycopy(hands, 0, samples, offset, seats);
+            samples[offset + seats] = solution;
+            return weight * deduction.weigh(hands, solution, 0);
+        }
+    }
+}
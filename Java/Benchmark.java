@@ -0,0 +1,494 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.List;
+
+/**
+ * Micro-benchmarks for the hot paths of the game model.
+ * Run with the names of the benchmarks to run, or with no arguments to run them all.
+ */
+public class Benchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    /**
+     * A body of work to be timed.
+     * Returns a value derived from its work so that the JIT cannot discard it.
+     */
+    private interface Task {
+        long run();
+    }
+
+    public static void main(String... args) {
+        Set<String> selected = new HashSet<>(Arrays.asList(args));
+        if (selected.isEmpty() || selected.contains("safeMove")) {
+            safeMove();
+        }
+        if (selected.isEmpty() || selected.contains("reachable")) {
+            reachable();
+        }
+        if (selected.isEmpty() || selected.contains("allocation")) {
+            allocation();
+        }
+        if (selected.isEmpty() || selected.contains("glyphs")) {
+            glyphs();
+        }
+        if (selected.isEmpty() || selected.contains("state")) {
+            state();
+        }
+        if (selected.isEmpty() || selected.contains("deduction")) {
+            deduction();
+        }
+        if (selected.isEmpty() || selected.contains("belief")) {
+            belief();
+        }
+        if (selected.isEmpty() || selected.contains("guess")) {
+            guess();
+        }
+    }
+
+    /**
+     * Measures the bytes allocated by movement, clearing the trail, and refreshing an Estate.
+     * Each operation is repeated many times after warming up, so that anything
+     * allocated on every call stands out from one-off growth of internal lists.
+     */
+    private static void allocation() {
+        Game game = new Simulator(new Game(new SplittableRandomSource(1)), List.of(
+                new GreedyController(new SplittableRandomSource(2)), new GreedyController(new SplittableRandomSource(3)),
+                new GreedyController(new SplittableRandomSource(4)), new GreedyController(new SplittableRandomSource(5)))).getGame();
+        Character character = game.getCurrentPlayer().getCharacter();
+        Game.Direction there = game.getBoard().isSafeMove(character.getY(), character.getX() + 1) ? Game.Direction.Right : Game.Direction.Left;
+        Game.Direction back = there == Game.Direction.Right ? Game.Direction.Left : Game.Direction.Right;
+        Estate estate = game.getBoard().getEstates().get(0);
+        int iterations = 100000;
+
+        allocated("moveInDirection + clearUsedTiles", iterations * 2, () -> {
+            long moved = 0;
+            for (int n = 0; n < iterations; n++) {
+                moved += game.moveInDirection(character, there);
+                game.clearUsedTiles();
+                moved += game.moveInDirection(character, back);
+                game.clearUsedTiles();
+            }
+            return moved;
+        });
+        allocated("Estate.updateContents", iterations, () -> {
+            for (int n = 0; n < iterations; n++) {
+                estate.updateContents();
+            }
+            return estate.getItems().size();
+        });
+    }
+
+    /**
+     * Times copying a GameState, which search does for every playout, and converting
+     * between a GameState and a live Game mid-game.
+     */
+    private static void state() {
+        Game game = playedGame();
+        GameState state = GameState.capture(game);
+        GameState copy = new GameState();
+        int iterations = 1000000;
+        time("GameState.copyFrom (" + GameState.LENGTH + " ints)", iterations, () -> {
+            long turns = 0;
+            for (int n = 0; n < iterations; n++) {
+                copy.copyFrom(state);
+                turns += copy.getTurn();
+            }
+            return turns;
+        });
+        allocated("GameState.copyFrom", iterations, () -> {
+            for (int n = 0; n < iterations; n++) {
+                copy.copyFrom(state);
+            }
+            return copy.getTurn();
+        });
+        time("GameState.capture", 10000, () -> {
+            long dice = 0;
+            for (int n = 0; n < 10000; n++) {
+                dice += GameState.capture(game).getDice();
+            }
+            return dice;
+        });
+        time("Game.restore", 10000, () -> {
+            for (int n = 0; n < 10000; n++) {
+                game.restore(state);
+            }
+            return game.getDiceTotal();
+        });
+    }
+
+    /**
+     * Times folding guesses into a Deduction, from a copy of a mid-game engine each time,
+     * as a playout would: a refutation seen by a bystander, and one shown to the guesser.
+     */
+    private static void deduction() {
+        Game game = playedGame();
+        Deduction base = game.getPlayers().get(0).getWorksheet().getDeduction();
+        base.getSolutionCount();
+        Deduction copy = new Deduction(base);
+        long guess = game.getCard("Bert").getMask() | game.getCard("Knife").getMask() | game.getCard("Manic Manor").getMask();
+        int iterations = 200000;
+        time("Deduction.copyFrom", iterations, () -> {
+            long count = 0;
+            for (int n = 0; n < iterations; n++) {
+                copy.copyFrom(base);
+                count += copy.getHas(1);
+            }
+            return count;
+        });
+        time("Deduction.refuted (bystander)", iterations, () -> {
+            long count = 0;
+            for (int n = 0; n < iterations; n++) {
+                copy.copyFrom(base);
+                copy.refuted(1, 3, guess);
+                count += copy.getSolutionCount();
+            }
+            return count;
+        });
+        time("Deduction.refuted + shown (guesser)", iterations, () -> {
+            long count = 0;
+            for (int n = 0; n < iterations; n++) {
+                copy.copyFrom(base);
+                copy.refuted(0, 2, guess);
+                copy.shown(2, Long.lowestOneBit(guess), guess);
+                count += copy.getSolutionCount();
+            }
+            return count;
+        });
+        allocated("Deduction.refuted + shown", iterations, () -> {
+            for (int n = 0; n < iterations; n++) {
+                copy.copyFrom(base);
+                copy.refuted(0, 2, guess);
+                copy.shown(2, Long.lowestOneBit(guess), guess);
+            }
+            return copy.getSolutionCount();
+        });
+    }
+
+    /**
+     * Times refreshing a Belief from scratch at every turn of a batch of 4-player games,
+     * once letting it enumerate deals and once forcing it to sample, and reports the mean
+     * and the worst. The first games only warm up.
+     */
+    private static void belief() {
+        RandomSource random = new SplittableRandomSource(1);
+        int cores = Runtime.getRuntime().availableProcessors();
+        long exactTotal = 0, exactWorst = 0, sampledTotal = 0, sampledWorst = 0;
+        int positions = 0;
+        for (int g = 0; g < 40; g++) {
+            List<PlayerController> controllers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                controllers.add(new GreedyController(random.split()));
+            }
+            Simulator simulator = new Simulator(new Game(random.split()), controllers);
+            while (simulator.playTurn()) {
+                Deduction deduction = simulator.getGame().getCurrentPlayer().getWorksheet().getDeduction();
+                long start = System.nanoTime();
+                new Belief(new Deduction(deduction), random.split()).refresh();
+                long exact = System.nanoTime() - start;
+                start = System.nanoTime();
+                new Belief(new Deduction(deduction), random.split(), 0, Belief.SAMPLES, cores).refresh();
+                long sampled = System.nanoTime() - start;
+                if (g >= 10) {
+                    positions++;
+                    exactTotal += exact;
+                    exactWorst = Math.max(exactWorst, exact);
+                    sampledTotal += sampled;
+                    sampledWorst = Math.max(sampledWorst, sampled);
+                }
+            }
+        }
+        System.out.printf("Belief.refresh, enumerated, %d positions     mean %6.2f ms  worst %6.2f ms%n",
+                positions, exactTotal / 1e6 / positions, exactWorst / 1e6);
+        System.out.printf("Belief.refresh, %d samples on %d threads  mean %6.2f ms  worst %6.2f ms%n",
+                Belief.SAMPLES, cores, sampledTotal / 1e6 / positions, sampledWorst / 1e6);
+    }
+
+    /**
+     * Times ranking the guesses at every turn of a batch of 4-player games, as the Suggest
+     * button in the guess menu does, once from scratch and once again from the cache,
+     * and reports the mean and the worst. The first games only warm up.
+     */
+    private static void guess() {
+        RandomSource random = new SplittableRandomSource(1);
+        GuessAdvisor advisor = new GuessAdvisor(random.split());
+        long coldTotal = 0, coldWorst = 0, cachedTotal = 0, cachedWorst = 0;
+        int positions = 0;
+        for (int g = 0; g < 40; g++) {
+            List<PlayerController> controllers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                controllers.add(new GreedyController(random.split()));
+            }
+            Simulator simulator = new Simulator(new Game(random.split()), controllers);
+            while (simulator.playTurn()) {
+                Game game = simulator.getGame();
+                Deduction deduction = game.getCurrentPlayer().getWorksheet().getDeduction();
+                int estate = game.getCard(game.getBoard().getEstates().get(positions % GameState.ESTATES).getName()).getId();
+                long start = System.nanoTime();
+                advisor.rank(deduction, estate);
+                long cold = System.nanoTime() - start;
+                start = System.nanoTime();
+                advisor.rank(deduction, estate);
+                long cached = System.nanoTime() - start;
+                if (g >= 10) {
+                    positions++;
+                    coldTotal += cold;
+                    coldWorst = Math.max(coldWorst, cold);
+                    cachedTotal += cached;
+                    cachedWorst = Math.max(cachedWorst, cached);
+                }
+            }
+        }
+        System.out.printf("GuessAdvisor.rank, %d positions  mean %6.2f ms  worst %6.2f ms%n",
+                positions, coldTotal / 1e6 / positions, coldWorst / 1e6);
+        System.out.printf("GuessAdvisor.rank, cached          mean %6.3f ms  worst %6.3f ms%n",
+                cachedTotal / 1e6 / positions, cachedWorst / 1e6);
+    }
+
+    /**
+     * Compares drawing the item letters of a board by laying out text, as BoardPanel used to,
+     * against blitting them from a GlyphAtlas. Draws off-screen, so it runs headless.
+     */
+    private static void glyphs() {
+        int square = 30;
+        Font font = new Font("Arial", Font.BOLD, 20);
+        Board board = playedBoard();
+        BufferedImage target = new BufferedImage(square * 24, square * 24, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        GlyphAtlas atlas = new GlyphAtlas(font, Color.CYAN, square, square);
+        int iterations = 2000;
+
+        long text = time("board letters, drawString", iterations, () -> {
+            long drawn = 0;
+            for (int n = 0; n < iterations; n++) {
+                for (int i = 0; i < Reachability.TILES; i++) {
+                    String icon = board.getItem(i).getDisplayIcon();
+                    if (!icon.isEmpty()) {
+                        g.setColor(Color.CYAN);
+                        g.setFont(new Font("Arial", Font.BOLD, 20));
+                        FontMetrics fm = g.getFontMetrics();
+                        int x = (square - fm.charWidth(icon.charAt(0))) / 2;
+                        int y = (square + fm.getAscent() - fm.getDescent()) / 2;
+                        g.drawString(icon, (i % 24) * square + x, (i / 24) * square + y);
+                        drawn++;
+                    }
+                }
+            }
+            return drawn;
+        });
+        long blit = time("board letters, glyph atlas", iterations, () -> {
+            long drawn = 0;
+            for (int n = 0; n < iterations; n++) {
+                for (int i = 0; i < Reachability.TILES; i++) {
+                    String icon = board.getItem(i).getDisplayIcon();
+                    if (!icon.isEmpty() && atlas.draw(g, icon, (i % 24) * square, (i / 24) * square)) {
+                        drawn++;
+                    }
+                }
+            }
+            return drawn;
+        });
+        System.out.printf("glyph speed-up: x%.1f%n", (double) text / blit);
+    }
+
+    /**
+     * Times the reachable-squares search for every dice total from a mid-game position,
+     * keeping places reachable in at most and in exactly that many moves.
+     */
+    private static void reachable() {
+        Board board = playedBoard();
+        Character character = new Character("Bench", "?", 12, 16);
+        long[] out = new long[Reachability.WORDS];
+        int iterations = 20000;
+        time("reachable, at most 2..12 moves", iterations * 11, () -> {
+            long found = 0;
+            for (int n = 0; n < iterations; n++) {
+                for (int moves = 2; moves <= 12; moves++) {
+                    board.reachable(character, moves, false, out);
+                    found += Long.bitCount(out[n % Reachability.WORDS]);
+                }
+            }
+            return found;
+        });
+        time("reachable, exactly 2..12 moves", iterations / 20 * 11, () -> {
+            long found = 0;
+            for (int n = 0; n < iterations / 20; n++) {
+                for (int moves = 2; moves <= 12; moves++) {
+                    board.reachable(character, moves, true, out);
+                    found += Long.bitCount(out[n % Reachability.WORDS]);
+                }
+            }
+            return found;
+        });
+    }
+
+    /**
+     * Compares the bitboard safe-move check against the original Tile walk:
+     * a bounds check, two instanceof checks and a String comparison per step.
+     */
+    private static void safeMove() {
+        Board board = playedBoard();
+        int iterations = 2000;
+
+        long legacy = time("safeMove, tile walk", iterations * 26 * 26, () -> {
+            long safe = 0;
+            for (int n = 0; n < iterations; n++) {
+                for (int y = -1; y <= 24; y++) {
+                    for (int x = -1; x <= 24; x++) {
+                        if (legacySafeMove(board, y, x)) {
+                            safe++;
+                        }
+                    }
+                }
+            }
+            return safe;
+        });
+        long bitboard = time("safeMove, bitboard", iterations * 26 * 26, () -> {
+            long safe = 0;
+            for (int n = 0; n < iterations; n++) {
+                for (int y = -1; y <= 24; y++) {
+                    for (int x = -1; x <= 24; x++) {
+                        if (board.isSafeMove(y, x)) {
+                            safe++;
+                        }
+                    }
+                }
+            }
+            return safe;
+        });
+        System.out.printf("safeMove speed-up: x%.1f%n", (double) legacy / bitboard);
+
+        long legacyNeighbours = time("neighbours, tile walk", iterations * 24 * 24, () -> {
+            long safe = 0;
+            for (int n = 0; n < iterations; n++) {
+                for (int y = 0; y < 24; y++) {
+                    for (int x = 0; x < 24; x++) {
+                        safe += (legacySafeMove(board, y - 1, x) ? 1 : 0) + (legacySafeMove(board, y, x + 1) ? 2 : 0)
+                                + (legacySafeMove(board, y + 1, x) ? 4 : 0) + (legacySafeMove(board, y, x - 1) ? 8 : 0);
+                    }
+                }
+            }
+            return safe;
+        });
+        long bitboardNeighbours = time("neighbours, bitboard", iterations * 24 * 24, () -> {
+            long safe = 0;
+            for (int n = 0; n < iterations; n++) {
+                for (int y = 0; y < 24; y++) {
+                    for (int x = 0; x < 24; x++) {
+                        safe += board.safeNeighbours(y, x);
+                    }
+                }
+            }
+            return safe;
+        });
+        System.out.printf("neighbours speed-up: x%.1f%n", (double) legacyNeighbours / bitboardNeighbours);
+
+        long[] mask = new long[9];
+        long legacyBoard = time("whole-board safe count, tile walk", iterations, () -> {
+            long safe = 0;
+            for (int n = 0; n < iterations; n++) {
+                for (int y = 0; y < 24; y++) {
+                    for (int x = 0; x < 24; x++) {
+                        if (legacySafeMove(board, y, x)) {
+                            safe++;
+                        }
+                    }
+                }
+            }
+            return safe;
+        });
+        long bitboardBoard = time("whole-board safe count, bitboard", iterations, () -> {
+            long safe = 0;
+            for (int n = 0; n < iterations; n++) {
+                for (long word : board.safeTiles(mask)) {
+                    safe += Long.bitCount(word);
+                }
+            }
+            return safe;
+        });
+        System.out.printf("whole-board speed-up: x%.1f%n", (double) legacyBoard / bitboardBoard);
+    }
+
+    /**
+     * The safe-move check as it was before Board kept bitboards.
+     */
+    private static boolean legacySafeMove(Board board, int y, int x) {
+        Tile target = board.getTile(y, x);
+        if (target instanceof EntranceTile) {
+            return true;
+        }
+        if (!(target instanceof GameTile)) {
+            return false;
+        }
+        return ((GameTile) target).getStored().getName().equals("empty");
+    }
+
+    /**
+     * Gets the board of a game that has been played for a few turns,
+     * so that characters, weapons and a trail are spread across it.
+     */
+    private static Board playedBoard() {
+        return playedGame().getBoard();
+    }
+
+    /**
+     * Gets a game that has been played for a few turns.
+     */
+    private static Game playedGame() {
+        RandomSource random = new SplittableRandomSource(1);
+        List<PlayerController> controllers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            controllers.add(new GreedyController(random.split()));
+        }
+        Simulator simulator = new Simulator(new Game(random.split()), controllers);
+        for (int turn = 0; turn < 6; turn++) {
+            simulator.playTurn();
+        }
+        return simulator.getGame();
+    }
+
+    /**
+     * Measures the bytes a task allocates on the current thread after warming it up,
+     * and prints the bytes per operation.
+     *
+     * @param name the name to report
+     * @param operations the number of operations one run of the task performs
+     * @param task the task
+     */
+    private static void allocated(String name, long operations, Task task) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long check = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            check += task.run();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        check += task.run();
+        long bytes = threads.getCurrentThreadAllocatedBytes() - before;
+        System.out.printf("%-40s %8.2f bytes/op  (check %d)%n", name, (double) bytes / operations, check);
+    }
+
+    /**
+     * Times a task after warming it up, and prints the best time per operation.
+     *
+     * @param name the name to report
+     * @param operations the number of operations one run of the task performs
+     * @param task the task
+     * @return the best time for one run, in nanoseconds
+     */
+    private static long time(String name, long operations, Task task) {
+        long check = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            check += task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            check += task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-40s %8.2f ns/op  (check %d)%n", name, (double) best / operations, check);
+        return best;
+    }
+}
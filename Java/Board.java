@@ -11,6 +11,22 @@ import java.util.*;
  * @author Finley Neilson
  */
 public class Board {
+    /**
+     * Receives the tiles and Estates whose contents changed during an action.
+     * The arrays passed are reused by the Board, and are only valid for the duration of the call.
+     * Changes a listener makes while it is being notified are held back until every listener
+     * has heard about the current batch, then sent as a batch of their own.
+     */
+    public interface ChangeListener {
+        /**
+         * Called once per action, or once per change made outside of any batch.
+         *
+         * @param tiles   A bitboard with bit (row * 24 + col) set for every tile whose stored item or trail mark changed.
+         * @param estates A mask with bit i set for every Estate in getEstates() whose contents changed.
+         */
+        void boardChanged(long[] tiles, int estates);
+    }
+
     /**
      * The number of rows on the game board
      */
@@ -21,6 +37,11 @@ public class Board {
      */
     private static final int COLS = 24;
 
+    /**
+     * The number of longs needed to hold one bit per tile.
+     */
+    private static final int WORDS = (ROWS * COLS + 63) / 64;
+
     /**
      * The border character used for visual representation of the game board.
      */
@@ -36,6 +57,55 @@ public class Board {
      */
     private List<Estate> estates = new ArrayList<Estate>();
 
+    /**
+     * Bitboards with one bit per tile, at index row * COLS + col.
+     * Walls and entrances are fixed once the board is built; occupancy is kept
+     * in sync by GameTile whenever an item is stored on or cleared from a tile.
+     */
+    private final long[] walls = new long[WORDS];
+    private final long[] entrances = new long[WORDS];
+    private final long[] occupied = new long[WORDS];
+
+    /**
+     * The item stored on each tile, at index row * COLS + col, kept in sync with the tiles
+     * like the occupancy bitboard, so a tile's item can be found with a single array read.
+     */
+    private final Item[] items = new Item[ROWS * COLS];
+
+    /**
+     * The trail of tiles walked over this turn, which may not be walked over again.
+     * A tile is on the trail when its stamp equals the current epoch, so clearing
+     * the whole trail is a single increment. The tiles stamped this epoch are also
+     * listed, for whole-board queries.
+     */
+    private final int[] trailEpoch = new int[ROWS * COLS];
+    private int epoch = 1;
+    private final int[] trail = new int[ROWS * COLS];
+    private int trailLength = 0;
+
+    /**
+     * The reachable-squares engine for this board's layout, and its scratch bitboard.
+     */
+    private final Reachability reachability;
+    private final long[] safeScratch = new long[WORDS];
+
+    /**
+     * For each tile, the index of the Estate it stores items for, or -1.
+     */
+    private final int[] estateOfTile = new int[ROWS * COLS];
+
+    /**
+     * Change listeners, and the changes collected since they were last notified.
+     * While batchDepth is above zero, changes are held back and sent as one batch when it returns to zero.
+     * A batch being sent is first copied into firingTiles, so that changes made by the listeners
+     * collect separately.
+     */
+    private final List<ChangeListener> listeners = new ArrayList<>();
+    private final long[] dirtyTiles = new long[WORDS];
+    private final long[] firingTiles = new long[WORDS];
+    private int dirtyEstates = 0;
+    private int batchDepth = 0;
+
     /**
      * Constructor for the Board class. Initializes the game board and estates.
      */
@@ -43,6 +113,8 @@ public class Board {
         buildGameSpace();
 
         // Create and initialize estates
+        Arrays.fill(estateOfTile, -1);
+        Arrays.fill(items, Item.EMPTY);
         initializeEstates();
         // Build estate structures on the board
         buildEstateStructures();
@@ -50,6 +122,9 @@ public class Board {
         // Build entrances and grey areas
         buildEntrances();
         buildGreyAreas();
+
+        buildMasks();
+        reachability = new Reachability(this);
     }
 
     /**
@@ -58,7 +133,7 @@ public class Board {
     private void buildGameSpace() {
         for (int i = 0; i < ROWS; i++) {
             for (int j = 0; j < COLS; j++) {
-                board[i][j] = new GameTile(i, j);
+                board[i][j] = new GameTile(i, j, this);
             }
         }
     }
@@ -114,6 +189,7 @@ public class Board {
         for (int i = y + 1; i < y + 4; i++) {
             for (int j = x + 1; j < x + 4; j++) {
                 estate.addEstateTile((GameTile)board[i][j]);
+                estateOfTile[i * COLS + j] = estates.indexOf(estate);
             }
         }
     }
@@ -147,6 +223,7 @@ public class Board {
         for (int i = y + 1; i < y + 3; i++) {
             for (int j = x + 1; j < x + 5; j++) {
                 estate.addEstateTile((GameTile)board[i][j]);
+                estateOfTile[i * COLS + j] = estates.indexOf(estate);
             }
         }
     }
@@ -243,6 +320,22 @@ public class Board {
         }
     }
 
+    /**
+     * Records the fixed wall and entrance layout in the bitboards.
+     */
+    private void buildMasks() {
+        for (int i = 0; i < ROWS; i++) {
+            for (int j = 0; j < COLS; j++) {
+                int index = i * COLS + j;
+                if (board[i][j] instanceof WallTile) {
+                    walls[index >>> 6] |= 1L << index;
+                } else if (board[i][j] instanceof EntranceTile) {
+                    entrances[index >>> 6] |= 1L << index;
+                }
+            }
+        }
+    }
+
     /**
      * Checks if the provided coordinates are within the valid bounds of the game board.
      *
@@ -270,31 +363,301 @@ public class Board {
 
     /**
      * Checks if a move to the specified position is safe (i.e. not occupied by a wall, gray-space, or a player).
+     * Entrance tiles are always safe, as stepping onto one enters its estate.
      *
      * @param y The row index.
      * @param x The column index.
      * @return  True if the move is safe; otherwise, false.
      */
     public boolean isSafeMove(int y, int x) {
-        // Checks if the provided coordinates are within the bounds of the board
-        if (!isValidPosition(y, x)) {
-            return false;
+        return isValidPosition(y, x) && isSafeMove(y * COLS + x);
+    }
+
+    /**
+     * Checks if a move to the tile at the specified bitboard index is safe.
+     *
+     * @param index The tile index, row * 24 + col.
+     * @return      True if the move is safe; otherwise, false.
+     */
+    public boolean isSafeMove(int index) {
+        int word = index >>> 6;
+        return ((entrances[word] | ~(walls[word] | occupied[word])) & (1L << index)) != 0 && trailEpoch[index] != epoch;
+    }
+
+    /**
+     * Gets the directions in which a move from the specified position is safe, without allocating.
+     * Bit n of the result is set when a move in Game.Direction.values()[n] is safe.
+     *
+     * @param y The row index.
+     * @param x The column index.
+     * @return  The bitmask of safe directions.
+     */
+    public int safeNeighbours(int y, int x) {
+        int mask = 0;
+        if (y > 0 && isSafeMove((y - 1) * COLS + x)) {
+            mask |= 1;
+        }
+        if (x < COLS - 1 && isSafeMove(y * COLS + x + 1)) {
+            mask |= 2;
+        }
+        if (y < ROWS - 1 && isSafeMove((y + 1) * COLS + x)) {
+            mask |= 4;
+        }
+        if (x > 0 && isSafeMove(y * COLS + x - 1)) {
+            mask |= 8;
+        }
+        return mask;
+    }
+
+    /**
+     * Writes the bitboard of every tile a character could currently step onto, without allocating.
+     * Bit (row * 24 + col) of the result is set when a move onto that tile is safe.
+     *
+     * @param out The array to write into, of at least 9 longs.
+     * @return    The same array.
+     */
+    public long[] safeTiles(long[] out) {
+        for (int word = 0; word < WORDS; word++) {
+            out[word] = entrances[word] | ~(walls[word] | occupied[word]);
+        }
+        for (int i = 0; i < trailLength; i++) {
+            out[trail[i] >>> 6] &= ~(1L << trail[i]);
         }
+        return out;
+    }
+
+    /**
+     * Finds every tile and estate an item could move to with the given number of moves,
+     * respecting walls, occupancy and the trail already walked this turn.
+     * See Reachability for the layout of the result.
+     *
+     * @param item  The item moving, usually the current player's character.
+     * @param moves The number of moves available.
+     * @param exact Whether to keep only places reachable in exactly that many moves.
+     * @param out   The array to write into, of at least Reachability.WORDS longs.
+     * @return      The same array.
+     */
+    public long[] reachable(Item item, int moves, boolean exact, long[] out) {
+        int estate = item.isInEstate() ? estates.indexOf(item.getEstate()) : -1;
+        return reachability.reachable(safeTiles(safeScratch), item.getY() * COLS + item.getX(), estate, moves, exact, out);
+    }
+
+    /**
+     * Finds every tile and estate an item could move to with the given number of moves.
+     *
+     * @param item  The item moving.
+     * @param moves The number of moves available.
+     * @param exact Whether to keep only places reachable in exactly that many moves.
+     * @return      A new bitset of the reachable places.
+     */
+    public long[] reachable(Item item, int moves, boolean exact) {
+        return reachable(item, moves, exact, new long[Reachability.WORDS]);
+    }
+
+    /**
+     * Gets the reachable-squares engine for this board's layout.
+     *
+     * @return The engine.
+     */
+    public Reachability getReachability() {
+        return reachability;
+    }
 
-        Tile target = getTile(y, x);
+    /**
+     * Checks whether the specified position holds an item.
+     *
+     * @param y The row index.
+     * @param x The column index.
+     * @return  True if an item is stored on the tile; otherwise, false.
+     */
+    public boolean isOccupied(int y, int x) {
+        return isValidPosition(y, x) && testBit(occupied, y * COLS + x);
+    }
 
-        // Tile is considered safe if it is an EntranceceTile
-        if (target instanceof EntranceTile) {
-            return true;
+    /**
+     * Checks whether the specified position is a wall or grey area.
+     *
+     * @param y The row index.
+     * @param x The column index.
+     * @return  True if the tile is a wall; otherwise, false.
+     */
+    public boolean isWall(int y, int x) {
+        return isValidPosition(y, x) && testBit(walls, y * COLS + x);
+    }
+
+    /**
+     * Checks whether the specified position is an estate entrance.
+     *
+     * @param y The row index.
+     * @param x The column index.
+     * @return  True if the tile is an entrance; otherwise, false.
+     */
+    public boolean isEntrance(int y, int x) {
+        return isValidPosition(y, x) && testBit(entrances, y * COLS + x);
+    }
+
+    /**
+     * Updates the occupancy bitboard and the item index. Called by GameTile whenever its stored item changes.
+     *
+     * @param y    The row index.
+     * @param x    The column index.
+     * @param item The item now stored on the tile, or Item.EMPTY.
+     */
+    void setItem(int y, int x, Item item) {
+        int index = y * COLS + x;
+        items[index] = item;
+        if (item != Item.EMPTY) {
+            this.occupied[index >>> 6] |= 1L << index;
+        } else {
+            this.occupied[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Gets the item stored on a tile, ignoring the trail.
+     *
+     * @param index The tile index, row * 24 + col.
+     * @return      The item on the tile, or Item.EMPTY.
+     */
+    public Item getItem(int index) {
+        return items[index];
+    }
+
+    /**
+     * Marks a tile as walked over this turn.
+     *
+     * @param y The row index.
+     * @param x The column index.
+     */
+    public void markTrail(int y, int x) {
+        int index = y * COLS + x;
+        if (trailEpoch[index] != epoch) {
+            trailEpoch[index] = epoch;
+            trail[trailLength++] = index;
+            tileChanged(y, x);
+        }
+    }
+
+    /**
+     * Checks whether a tile has been walked over this turn.
+     *
+     * @param y The row index.
+     * @param x The column index.
+     * @return  True if the tile is on the trail; otherwise, false.
+     */
+    public boolean isTrail(int y, int x) {
+        return trailEpoch[y * COLS + x] == epoch;
+    }
+
+    /**
+     * Clears the trail in constant time by starting a new epoch.
+     * Stamps are only wiped in the unlikely event that the epoch counter wraps around.
+     */
+    public void clearTrail() {
+        beginBatch();
+        for (int i = 0; i < trailLength; i++) {
+            tileChanged(trail[i] / COLS, trail[i] % COLS);
         }
+        trailLength = 0;
+        if (++epoch == 0) {
+            Arrays.fill(trailEpoch, 0);
+            epoch = 1;
+        }
+        endBatch();
+    }
+
+    /**
+     * Registers a listener to be told which tiles and Estates change.
+     *
+     * @param listener The listener to add.
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops a listener from being told about changes.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts collecting changes into one batch, so that listeners hear about a whole action at once.
+     * Batches may be nested; every call must be matched by a call to endBatch.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Ends a batch, notifying the listeners of everything that changed once the outermost batch ends.
+     */
+    public void endBatch() {
+        if (--batchDepth == 0) {
+            fireChanges();
+        }
+    }
+
+    /**
+     * Records that a tile's stored item or trail mark changed.
+     * Called by GameTile, and by the trail methods. Nothing is recorded while nobody is listening,
+     * so headless games pay only for the check.
+     *
+     * @param y The row index.
+     * @param x The column index.
+     */
+    void tileChanged(int y, int x) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        int index = y * COLS + x;
+        dirtyTiles[index >>> 6] |= 1L << index;
+        if (estateOfTile[index] >= 0) {
+            dirtyEstates |= 1 << estateOfTile[index];
+        }
+        if (batchDepth == 0) {
+            fireChanges();
+        }
+    }
+
+    /**
+     * Sends the collected changes to every listener and forgets them, repeating for any changes
+     * the listeners make in turn. Sending counts as a batch, so those changes wait until every
+     * listener has heard about the current ones.
+     */
+    private void fireChanges() {
+        while (isDirty()) {
+            System.arraycopy(dirtyTiles, 0, firingTiles, 0, WORDS);
+            int estates = dirtyEstates;
+            Arrays.fill(dirtyTiles, 0L);
+            dirtyEstates = 0;
+            batchDepth++;
+            try {
+                for (ChangeListener listener : listeners) {
+                    listener.boardChanged(firingTiles, estates);
+                }
+            } finally {
+                batchDepth--;
+            }
+        }
+    }
 
-        // If the tile is not a GameTile, it is not safe
-        if (!(target instanceof GameTile)) {
-            return false;
+    /**
+     * Checks whether any changes have been collected since the listeners were last notified.
+     */
+    private boolean isDirty() {
+        boolean dirty = dirtyEstates != 0;
+        for (long word : dirtyTiles) {
+            dirty |= word != 0;
         }
+        return dirty;
+    }
 
-        // If the tile is considered 'empty', it is safe
-        return ((GameTile) target).getStored().getName().equals("empty");
+    private static boolean testBit(long[] mask, int index) {
+        return (mask[index >>> 6] & (1L << index)) != 0;
     }
 
     /**
@@ -0,0 +1,201 @@
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.*;
+
+/**
+ * Slides item letters between tiles on the board view, rather than having them jump.
+ * The model moves items instantly; the animator only remembers where each item was last
+ * drawn and, when the Board reports that it changed tiles, draws it gliding there over
+ * a short time. All motions are driven by one javax.swing.Timer, which runs only while
+ * something is moving, and each frame repaints just the squares a moving letter covers.
+ *
+ * A new move for an item that is still gliding skips the rest of its current motion,
+ * so queued moves never fall behind the model. Positions are kept in squares,
+ * so the animator is unaffected by the square size changing.
+ */
+public class BoardAnimator {
+    /**
+     * The time between frames, in milliseconds.
+     */
+    private static final int FRAME_MS = 16;
+
+    /**
+     * The time taken to glide one square, and the longest time any glide takes.
+     */
+    private static final int STEP_MS = 90;
+    private static final int MAX_MS = 300;
+
+    /**
+     * The view that draws the board, and repaints parts of it for the animator.
+     */
+    public interface View {
+        /**
+         * Repaints an area of the board.
+         *
+         * @param col the left edge, in squares
+         * @param row the top edge, in squares
+         * @param cols the width, in squares
+         * @param rows the height, in squares
+         */
+        void repaintSquares(double col, double row, double cols, double rows);
+    }
+
+    /**
+     * An item gliding from one square to another, and where it was last drawn.
+     */
+    private static class Motion {
+        private double fromCol;
+        private double fromRow;
+        private int toCol;
+        private int toRow;
+        private long start;
+        private long duration;
+        private double col;
+        private double row;
+    }
+
+    private final Board board;
+    private final View view;
+    private final javax.swing.Timer timer;
+
+    /**
+     * The tile each item was last seen on, and the items currently gliding.
+     */
+    private final Map<Item, Integer> tileOf = new IdentityHashMap<>();
+    private final Map<Item, Motion> motions = new IdentityHashMap<>();
+
+    /**
+     * Constructor for the BoardAnimator class.
+     * Items already on the board are drawn where they stand.
+     *
+     * @param board the board whose items are animated
+     * @param view the view to repaint
+     */
+    public BoardAnimator(Board board, View view) {
+        this.board = board;
+        this.view = view;
+        for (int i = 0; i < Reachability.TILES; i++) {
+            if (board.getItem(i) != Item.EMPTY) {
+                tileOf.put(board.getItem(i), i);
+            }
+        }
+        timer = new javax.swing.Timer(FRAME_MS, new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    tick();
+                }
+            });
+    }
+
+    /**
+     * Starts items gliding to the changed tiles they now stand on.
+     * Called with the tiles from a Board change notification.
+     *
+     * @param tiles a bitboard of the changed tiles
+     */
+    public void tilesChanged(long[] tiles) {
+        for (int word = 0; word < tiles.length; word++) {
+            long bits = tiles[word];
+            while (bits != 0) {
+                int index = word * 64 + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                Item item = board.getItem(index);
+                if (item != Item.EMPTY) {
+                    Integer from = tileOf.put(item, index);
+                    if (from != null && from != index) {
+                        glide(item, from, index);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts an item gliding from one tile to another, skipping any glide still in progress.
+     */
+    private void glide(Item item, int from, int to) {
+        Motion motion = motions.get(item);
+        if (motion == null) {
+            motion = new Motion();
+            motions.put(item, motion);
+        } else {
+            view.repaintSquares(motion.col, motion.row, 1, 1);
+        }
+        motion.fromCol = from % 24;
+        motion.fromRow = from / 24;
+        motion.toCol = to % 24;
+        motion.toRow = to / 24;
+        motion.col = motion.fromCol;
+        motion.row = motion.fromRow;
+        motion.start = System.nanoTime();
+        int squares = Math.abs(motion.toCol - (from % 24)) + Math.abs(motion.toRow - (from / 24));
+        motion.duration = Math.min(MAX_MS, STEP_MS * squares) * 1_000_000L;
+        view.repaintSquares(motion.col, motion.row, 1, 1);
+        timer.start();
+    }
+
+    /**
+     * Moves every gliding item on by one frame.
+     */
+    private void tick() {
+        long now = System.nanoTime();
+        Iterator<Motion> it = motions.values().iterator();
+        while (it.hasNext()) {
+            Motion motion = it.next();
+            double t = Math.min(1, (double) (now - motion.start) / motion.duration);
+            // Ease out, so letters settle onto their tiles
+            t = 1 - (1 - t) * (1 - t);
+            double col = motion.fromCol + (motion.toCol - motion.fromCol) * t;
+            double row = motion.fromRow + (motion.toRow - motion.fromRow) * t;
+            double left = Math.min(col, motion.col);
+            double top = Math.min(row, motion.row);
+            view.repaintSquares(left, top, Math.abs(col - motion.col) + 1, Math.abs(row - motion.row) + 1);
+            motion.col = col;
+            motion.row = row;
+            if (t >= 1) {
+                it.remove();
+            }
+        }
+        if (motions.isEmpty()) {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Ends every glide at once, drawing every item on its tile.
+     */
+    public void skip() {
+        for (Motion motion : motions.values()) {
+            view.repaintSquares(motion.col, motion.row, 1, 1);
+            view.repaintSquares(motion.toCol, motion.toRow, 1, 1);
+        }
+        motions.clear();
+        timer.stop();
+    }
+
+    /**
+     * Checks whether an item is gliding, and so must not be drawn on its tile.
+     *
+     * @param item the item
+     * @return true if the item is being drawn by the animator
+     */
+    public boolean isMoving(Item item) {
+        return motions.containsKey(item);
+    }
+
+    /**
+     * Draws every gliding item where it has got to.
+     *
+     * @param g the graphics to draw with
+     * @param glyphs the item letters at the current square size
+     * @param squareWidth the width of a board square
+     * @param squareHeight the height of a board square
+     */
+    public void paint(Graphics g, GlyphAtlas glyphs, int squareWidth, int squareHeight) {
+        for (Map.Entry<Item, Motion> entry : motions.entrySet()) {
+            Motion motion = entry.getValue();
+            glyphs.draw(g, entry.getKey().getDisplayIcon(),
+                    (int) Math.round(motion.col * squareWidth), (int) Math.round(motion.row * squareHeight));
+        }
+    }
+}
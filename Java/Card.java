@@ -7,6 +7,22 @@
  */
 public class Card {
 
+    /**
+     * The number of cards in the game. Card ids run from 0 to COUNT - 1,
+     * so a set of cards fits in the low bits of a long.
+     */
+    public static final int COUNT = 14;
+
+    /**
+     * The kinds of card in the game.
+     */
+    public enum Type {Character, Weapon, Estate}
+
+    /**
+     * The stable id of the card, its bit in a card mask.
+     */
+    private final int id;
+
     /**
      * Indicates whether this card is one of the three murder cards.
      */
@@ -25,17 +41,19 @@ public class Card {
     /**
      * The type of the card (character, estate, weapon).
      */
-    private final String type;
+    private final Type type;
 
     /**
      * Constructor for the Card class.
      *
+     * @param aId       The stable id of the card, between 0 and COUNT - 1.
      * @param aIsMurder Indicates whether this card is a murder card.
      * @param aOwner    The player who owns this card.
      * @param aName     The name of the card.
      * @param aType     The type or category of the card.
      */
-    public Card(boolean aIsMurder, Player aOwner, String aName, String aType) {
+    public Card(int aId, boolean aIsMurder, Player aOwner, String aName, Type aType) {
+        id = aId;
         isMurder = aIsMurder;
         owner = aOwner;
         name = aName;
@@ -90,12 +108,39 @@ public class Card {
     /**
      * Gets the type or category of the card.
      *
-     * @return The type of the card.
+     * @return The name of the type of the card.
      */
     public String getType() {
+        return type.name();
+    }
+
+    /**
+     * Gets the type or category of the card.
+     *
+     * @return The type of the card.
+     */
+    public Type getCardType() {
         return type;
     }
 
+    /**
+     * Gets the stable id of the card.
+     *
+     * @return The id, between 0 and COUNT - 1.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the bit representing this card in a card mask.
+     *
+     * @return The card's mask.
+     */
+    public long getMask() {
+        return 1L << id;
+    }
+
     /**
      * Returns a string representation of the card, including its name, type, owner, and murder status.
      *
@@ -0,0 +1,572 @@
+import java.util.*;
+
+/**
+ * Works out what one player can deduce about where the cards are, from everything they see.
+ *
+ * For every seat it keeps two card masks, the cards that seat certainly has and the cards it
+ * certainly does not have; any other card is unknown. It also keeps the set of the 100
+ * (Character, Weapon, Estate) solutions still possible, as a 100-bit mask, and the refutations
+ * the player saw but was not shown: "this seat has at least one of these cards". A log of the
+ * events themselves is kept too, so that whole deals can be weighed against them, as Belief does.
+ *
+ * Each event is folded into the masks at once, and propagated to a fixed point using the rules
+ * of the game the next time anything is asked of the engine: every card is held by exactly one
+ * seat or is in the solution, every seat holds as many cards as it was dealt, and the solution
+ * has one card of each type. Everything is held in a few fixed arrays and updated with bit
+ * operations, so an update takes well under a microsecond and never allocates, and an engine
+ * can be copied for search. Engines nobody asks about cost almost nothing to keep up to date.
+ *
+ * Cards are referred to by mask, as in Card. Seats are indexed in turn order, as in Game.getPlayers().
+ */
+public final class Deduction {
+    /**
+     * The number of possible solutions, one for each (Character, Weapon, Estate).
+     */
+    public static final int SOLUTIONS = 4 * 5 * 5;
+
+    private static final long ALL_CARDS = (1L << Card.COUNT) - 1;
+    private static final long CHARACTER_CARDS = GameState.CHARACTER_CARDS;
+    private static final long WEAPON_CARDS = GameState.WEAPON_CARDS;
+    private static final long ESTATE_CARDS = GameState.ESTATE_CARDS;
+
+    /**
+     * The solutions that contain each card, by card id, split into the low 64 and high 36 solutions.
+     * Solution number character * 25 + weapon * 5 + estate, counting each type of card from zero.
+     */
+    private static final long[] WITH_LOW = new long[Card.COUNT];
+    private static final long[] WITH_HIGH = new long[Card.COUNT];
+    static {
+        for (int s = 0; s < SOLUTIONS; s++) {
+            for (long cards = cardsOf(s); cards != 0; cards &= cards - 1) {
+                int card = Long.numberOfTrailingZeros(cards);
+                if (s < 64) {
+                    WITH_LOW[card] |= 1L << s;
+                } else {
+                    WITH_HIGH[card] |= 1L << (s - 64);
+                }
+            }
+        }
+    }
+
+    private final int seats;
+    private final int self;
+    private final int[] handSize;
+    private final long[] has;
+    private final long[] hasNot;
+    private long solutionsLow = -1L;
+    private long solutionsHigh = (1L << (SOLUTIONS - 64)) - 1;
+
+    /**
+     * The refutations seen but not shown: clause i says seat clauseSeat[i] has at least one of clauseCards[i].
+     * Clauses are dropped once they are satisfied or reduced to a single card.
+     */
+    private int[] clauseSeat = new int[16];
+    private long[] clauseCards = new long[16];
+    private int clauses = 0;
+
+    /**
+     * Whether anything has been learned since the last propagation.
+     */
+    private boolean dirty = true;
+
+    /**
+     * Every event seen, in order, so that a whole deal can be weighed against them: the kind of
+     * event, the guesser and refuter, the cards shown or ruled out, and the cards guessed.
+     */
+    private static final int REFUTED = 0;
+    private static final int UNREFUTED = 1;
+    private static final int SHOWN = 2;
+    private static final int WRONG_SOLVE = 3;
+    private static final int RULED_OUT = 4;
+    private int[] eventType = new int[16];
+    private int[] eventGuesser = new int[16];
+    private int[] eventRefuter = new int[16];
+    private long[] eventCards = new long[16];
+    private long[] eventGuess = new long[16];
+    private int events = 0;
+
+    /**
+     * Constructor for the Deduction class.
+     *
+     * @param handSizes the number of cards dealt to each seat
+     * @param self the seat of the player deducing
+     * @param hand the mask of that player's own hand
+     */
+    public Deduction(int[] handSizes, int self, long hand) {
+        this.seats = handSizes.length;
+        this.self = self;
+        this.handSize = handSizes.clone();
+        this.has = new long[seats];
+        this.hasNot = new long[seats];
+        has[self] = hand;
+        hasNot[self] = ALL_CARDS & ~hand;
+    }
+
+    /**
+     * Creates a copy of another engine.
+     *
+     * @param other the engine to copy
+     */
+    public Deduction(Deduction other) {
+        this.seats = other.seats;
+        this.self = other.self;
+        this.handSize = other.handSize.clone();
+        this.has = new long[seats];
+        this.hasNot = new long[seats];
+        copyFrom(other);
+    }
+
+    /**
+     * Overwrites this engine with another for the same seats, without allocating
+     * unless the other holds more clauses or events than this has room for.
+     *
+     * @param other the engine to copy
+     */
+    public void copyFrom(Deduction other) {
+        System.arraycopy(other.has, 0, has, 0, seats);
+        System.arraycopy(other.hasNot, 0, hasNot, 0, seats);
+        solutionsLow = other.solutionsLow;
+        solutionsHigh = other.solutionsHigh;
+        if (clauseSeat.length < other.clauses) {
+            clauseSeat = new int[other.clauseSeat.length];
+            clauseCards = new long[other.clauseCards.length];
+        }
+        System.arraycopy(other.clauseSeat, 0, clauseSeat, 0, other.clauses);
+        System.arraycopy(other.clauseCards, 0, clauseCards, 0, other.clauses);
+        clauses = other.clauses;
+        if (eventType.length < other.events) {
+            eventType = new int[other.eventType.length];
+            eventGuesser = new int[other.eventType.length];
+            eventRefuter = new int[other.eventType.length];
+            eventCards = new long[other.eventType.length];
+            eventGuess = new long[other.eventType.length];
+        }
+        System.arraycopy(other.eventType, 0, eventType, 0, other.events);
+        System.arraycopy(other.eventGuesser, 0, eventGuesser, 0, other.events);
+        System.arraycopy(other.eventRefuter, 0, eventRefuter, 0, other.events);
+        System.arraycopy(other.eventCards, 0, eventCards, 0, other.events);
+        System.arraycopy(other.eventGuess, 0, eventGuess, 0, other.events);
+        events = other.events;
+        dirty = other.dirty;
+    }
+
+    /**
+     * Notes that a seat showed this player a card, in answer to this player's guess.
+     *
+     * @param refuter the seat that showed the card
+     * @param card the mask of the card shown
+     * @param guess the mask of the three cards guessed
+     */
+    public void shown(int refuter, long card, long guess) {
+        has[refuter] |= card;
+        log(SHOWN, self, refuter, card, guess);
+    }
+
+    /**
+     * Notes that a guess was refuted. The seats between the guesser and the refuter could not
+     * refute, so have none of the guessed cards, and the refuter has at least one of them.
+     *
+     * @param guesser the seat that guessed
+     * @param refuter the seat that refuted
+     * @param guess the mask of the three cards guessed
+     */
+    public void refuted(int guesser, int refuter, long guess) {
+        for (int seat = (guesser + 1) % seats; seat != refuter; seat = (seat + 1) % seats) {
+            hasNot[seat] |= guess;
+        }
+        addClause(refuter, guess);
+        log(REFUTED, guesser, refuter, 0, guess);
+    }
+
+    /**
+     * Notes that nobody could refute a guess, so no seat but the guesser has any of its cards.
+     *
+     * @param guesser the seat that guessed
+     * @param guess the mask of the three cards guessed
+     */
+    public void unrefuted(int guesser, long guess) {
+        for (int seat = 0; seat < seats; seat++) {
+            if (seat != guesser) {
+                hasNot[seat] |= guess;
+            }
+        }
+        log(UNREFUTED, guesser, -1, 0, guess);
+    }
+
+    /**
+     * Notes that a solve attempt was wrong, so its three cards are not the solution.
+     *
+     * @param guess the mask of the three cards named
+     */
+    public void wrongSolve(long guess) {
+        int s = solutionOf(guess);
+        if (s < 64) {
+            solutionsLow &= ~(1L << s);
+        } else {
+            solutionsHigh &= ~(1L << (s - 64));
+        }
+        log(WRONG_SOLVE, -1, -1, 0, guess);
+    }
+
+    /**
+     * Notes that some cards are not in the solution, without knowing who holds them.
+     *
+     * @param cards the mask of the cards
+     */
+    public void ruleOut(long cards) {
+        log(RULED_OUT, -1, -1, cards, 0);
+        for (; cards != 0; cards &= cards - 1) {
+            int card = Long.numberOfTrailingZeros(cards);
+            solutionsLow &= ~WITH_LOW[card];
+            solutionsHigh &= ~WITH_HIGH[card];
+        }
+    }
+
+    /**
+     * Records an event, and marks the engine as needing propagation.
+     */
+    private void log(int type, int guesser, int refuter, long cards, long guess) {
+        if (events == eventType.length) {
+            eventType = Arrays.copyOf(eventType, events * 2);
+            eventGuesser = Arrays.copyOf(eventGuesser, events * 2);
+            eventRefuter = Arrays.copyOf(eventRefuter, events * 2);
+            eventCards = Arrays.copyOf(eventCards, events * 2);
+            eventGuess = Arrays.copyOf(eventGuess, events * 2);
+        }
+        eventType[events] = type;
+        eventGuesser[events] = guesser;
+        eventRefuter[events] = refuter;
+        eventCards[events] = cards;
+        eventGuess[events] = guess;
+        events++;
+        dirty = true;
+    }
+
+    /**
+     * Weighs a complete deal against the events seen: zero if the deal could not have produced
+     * them, otherwise the chance that it produced the cards shown to this player, assuming each
+     * refuter picks uniformly from the guessed cards they hold.
+     *
+     * @param hands the mask of each seat's hand
+     * @param solution the mask of the solution
+     * @param from the first event to weigh against, to weigh only events seen since a deal was last weighed
+     * @return the likelihood of the events from the first given
+     */
+    public double weigh(long[] hands, long solution, int from) {
+        double weight = 1;
+        for (int i = from; i < events; i++) {
+            long guess = eventGuess[i];
+            switch (eventType[i]) {
+                case REFUTED -> {
+                    for (int seat = (eventGuesser[i] + 1) % seats; seat != eventRefuter[i]; seat = (seat + 1) % seats) {
+                        if ((hands[seat] & guess) != 0) {
+                            return 0;
+                        }
+                    }
+                    if ((hands[eventRefuter[i]] & guess) == 0) {
+                        return 0;
+                    }
+                }
+                case UNREFUTED -> {
+                    for (int seat = 0; seat < seats; seat++) {
+                        if (seat != eventGuesser[i] && (hands[seat] & guess) != 0) {
+                            return 0;
+                        }
+                    }
+                }
+                case SHOWN -> {
+                    long refuteable = hands[eventRefuter[i]] & guess;
+                    if ((refuteable & eventCards[i]) == 0) {
+                        return 0;
+                    }
+                    weight /= Long.bitCount(refuteable);
+                }
+                case WRONG_SOLVE -> {
+                    if (solution == guess) {
+                        return 0;
+                    }
+                }
+                case RULED_OUT -> {
+                    if ((solution & eventCards[i]) != 0) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Gets everything this engine has been told, packed into longs: the seat deducing and its hand,
+     * the hand sizes, then one long for each event. Engines with equal histories deduce the same things,
+     * so a history can key a cache of anything worked out from them.
+     *
+     * @return the history
+     */
+    public long[] getHistory() {
+        long[] history = new long[2 + events];
+        history[0] = self | (has[self] << 8);
+        for (int seat = 0; seat < seats; seat++) {
+            history[1] |= (long) handSize[seat] << (seat * 8);
+        }
+        for (int i = 0; i < events; i++) {
+            history[2 + i] = eventType[i] | (eventGuesser[i] + 1) << 3 | (eventRefuter[i] + 1) << 6
+                    | eventCards[i] << 9 | eventGuess[i] << 23;
+        }
+        return history;
+    }
+
+    /**
+     * Gets the number of events seen, so that later events can be told apart.
+     *
+     * @return the count
+     */
+    public int getEventCount() {
+        return events;
+    }
+
+    /**
+     * Gets the seat of the player deducing.
+     *
+     * @return the seat
+     */
+    public int getSelf() {
+        return self;
+    }
+
+    /**
+     * Gets the number of seats.
+     *
+     * @return the count
+     */
+    public int getSeats() {
+        return seats;
+    }
+
+    /**
+     * Gets the number of cards dealt to a seat.
+     *
+     * @param seat the seat
+     * @return the hand size
+     */
+    public int getHandSize(int seat) {
+        return handSize[seat];
+    }
+
+    /**
+     * Adds a clause, unless it is already known to be satisfied.
+     */
+    private void addClause(int seat, long cards) {
+        if ((has[seat] & cards) != 0) {
+            return;
+        }
+        if (clauses == clauseSeat.length) {
+            clauseSeat = Arrays.copyOf(clauseSeat, clauses * 2);
+            clauseCards = Arrays.copyOf(clauseCards, clauses * 2);
+        }
+        clauseSeat[clauses] = seat;
+        clauseCards[clauses] = cards;
+        clauses++;
+    }
+
+    /**
+     * Applies the rules of the game until nothing more can be deduced.
+     */
+    private void propagate() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            // A card held by one seat is held by no other, and is not in the solution
+            long held = 0;
+            for (int seat = 0; seat < seats; seat++) {
+                held |= has[seat];
+            }
+            for (int seat = 0; seat < seats; seat++) {
+                long not = hasNot[seat] | (held & ~has[seat]);
+                // A seat whose whole hand is known has nothing else, and one with only
+                // as many possible cards as its hand size has all of them
+                if (Long.bitCount(has[seat]) == handSize[seat]) {
+                    not |= ALL_CARDS & ~has[seat];
+                }
+                long possible = ALL_CARDS & ~not;
+                if (Long.bitCount(possible) == handSize[seat] && possible != has[seat]) {
+                    has[seat] = possible;
+                    changed = true;
+                }
+                if (not != hasNot[seat]) {
+                    hasNot[seat] = not;
+                    changed = true;
+                }
+            }
+            for (long cards = held; cards != 0; cards &= cards - 1) {
+                int card = Long.numberOfTrailingZeros(cards);
+                solutionsLow &= ~WITH_LOW[card];
+                solutionsHigh &= ~WITH_HIGH[card];
+            }
+
+            // A clause with one possible card left is that card; a satisfied clause is dropped
+            for (int i = clauses - 1; i >= 0; i--) {
+                int seat = clauseSeat[i];
+                long cards = clauseCards[i] & ~hasNot[seat];
+                if ((cards & has[seat]) == 0 && Long.bitCount(cards) == 1) {
+                    has[seat] |= cards;
+                    changed = true;
+                }
+                if ((cards & has[seat]) != 0 || cards == 0) {
+                    clauses--;
+                    clauseSeat[i] = clauseSeat[clauses];
+                    clauseCards[i] = clauseCards[clauses];
+                } else {
+                    clauseCards[i] = cards;
+                }
+            }
+
+            // A card nobody can hold is in the solution; a card in every possible solution
+            // is held by nobody; a card in no possible solution is held by the one seat that can
+            long nobody = ALL_CARDS;
+            for (int seat = 0; seat < seats; seat++) {
+                nobody &= hasNot[seat];
+            }
+            for (long cards = nobody; cards != 0; cards &= cards - 1) {
+                int card = Long.numberOfTrailingZeros(cards);
+                solutionsLow &= WITH_LOW[card];
+                solutionsHigh &= WITH_HIGH[card];
+            }
+            long inSolution = solutionMask();
+            long notSolution = notSolutionMask();
+            for (int seat = 0; seat < seats; seat++) {
+                if ((inSolution & ~hasNot[seat]) != 0) {
+                    hasNot[seat] |= inSolution;
+                    changed = true;
+                }
+            }
+            for (long cards = notSolution & ~held; cards != 0; cards &= cards - 1) {
+                long card = Long.lowestOneBit(cards);
+                int only = -1;
+                for (int seat = 0; seat < seats; seat++) {
+                    if ((hasNot[seat] & card) == 0) {
+                        only = only == -1 ? seat : -2;
+                    }
+                }
+                if (only >= 0) {
+                    has[only] |= card;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the cards a seat certainly has.
+     *
+     * @param seat the seat
+     * @return the card mask
+     */
+    public long getHas(int seat) {
+        propagate();
+        return has[seat];
+    }
+
+    /**
+     * Gets the cards a seat certainly does not have.
+     *
+     * @param seat the seat
+     * @return the card mask
+     */
+    public long getHasNot(int seat) {
+        propagate();
+        return hasNot[seat];
+    }
+
+    /**
+     * Gets the number of solutions still possible.
+     *
+     * @return the count, from 1 to 100
+     */
+    public int getSolutionCount() {
+        propagate();
+        return Long.bitCount(solutionsLow) + Long.bitCount(solutionsHigh);
+    }
+
+    /**
+     * Checks whether three cards could still be the solution.
+     *
+     * @param guess the mask of a Character, a Weapon and an Estate card
+     * @return true if they could be
+     */
+    public boolean isPossibleSolution(long guess) {
+        propagate();
+        int s = solutionOf(guess);
+        return s < 64 ? (solutionsLow & (1L << s)) != 0 : (solutionsHigh & (1L << (s - 64))) != 0;
+    }
+
+    /**
+     * Gets the cards that are in every solution still possible.
+     *
+     * @return the card mask, of at most one card of each type
+     */
+    public long getSolutionMask() {
+        propagate();
+        return solutionMask();
+    }
+
+    private long solutionMask() {
+        long mask = 0;
+        for (int card = 0; card < Card.COUNT; card++) {
+            if ((solutionsLow & ~WITH_LOW[card]) == 0 && (solutionsHigh & ~WITH_HIGH[card]) == 0) {
+                mask |= 1L << card;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Gets the cards that are in no solution still possible, which is everything the
+     * player knows is not part of the murder.
+     *
+     * @return the card mask
+     */
+    public long getNotSolutionMask() {
+        propagate();
+        return notSolutionMask();
+    }
+
+    private long notSolutionMask() {
+        long mask = 0;
+        for (int card = 0; card < Card.COUNT; card++) {
+            if ((solutionsLow & WITH_LOW[card]) == 0 && (solutionsHigh & WITH_HIGH[card]) == 0) {
+                mask |= 1L << card;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Gets the cards of a solution by its number.
+     *
+     * @param solution the solution number, character * 25 + weapon * 5 + estate
+     * @return the mask of its three cards
+     */
+    public static long cardsOf(int solution) {
+        return (1L << (solution / 25)) | (1L << (GameState.CHARACTERS + solution / 5 % 5))
+                | (1L << (GameState.CHARACTERS + GameState.WEAPONS + solution % 5));
+    }
+
+    /**
+     * Gets the number of the solution made of three cards.
+     *
+     * @param guess the mask of a Character, a Weapon and an Estate card
+     * @return the solution number
+     */
+    public static int solutionOf(long guess) {
+        int character = Long.numberOfTrailingZeros(guess & CHARACTER_CARDS);
+        int weapon = Long.numberOfTrailingZeros(guess & WEAPON_CARDS) - GameState.CHARACTERS;
+        int estate = Long.numberOfTrailingZeros(guess & ESTATE_CARDS) - GameState.CHARACTERS - GameState.WEAPONS;
+        return character * 25 + weapon * 5 + estate;
+    }
+}
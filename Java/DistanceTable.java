@@ -0,0 +1,137 @@
+import java.util.*;
+
+/**
+ * Walking distances from every Tile to every Estate, for bots and move hints.
+ * The walls, grey areas and entrances never change after a Board is built, so the
+ * table is computed once per JVM and shared, immutable, by every Game.
+ *
+ * The distance to an Estate is the number of moves needed to step onto its nearest
+ * EntranceTile, and so enter it, ignoring other players and the trail.
+ * Estates are indexed as in Board.getEstates().
+ */
+public final class DistanceTable {
+    /**
+     * The distance reported for tiles from which an Estate cannot be walked to,
+     * such as walls and the insides of Estates.
+     */
+    public static final short UNREACHABLE = Short.MAX_VALUE;
+
+    /**
+     * Holds the shared table, built the first time it is asked for.
+     */
+    private static final class Holder {
+        static final DistanceTable TABLE = new DistanceTable(new Board());
+    }
+
+    /**
+     * Distances indexed [estate][row * 24 + col].
+     */
+    private final short[][] toEstate;
+
+    /**
+     * Moves needed to get from inside one Estate into another, indexed [from][to].
+     */
+    private final short[][] betweenEstates;
+
+    /**
+     * Gets the table shared by every Game in this JVM.
+     *
+     * @return the table
+     */
+    public static DistanceTable get() {
+        return Holder.TABLE;
+    }
+
+    private DistanceTable(Board board) {
+        List<Estate> estates = board.getEstates();
+        toEstate = new short[estates.size()][Reachability.TILES];
+        for (int e = 0; e < estates.size(); e++) {
+            fill(board, estates.get(e), toEstate[e]);
+        }
+
+        // Leaving an Estate is one move onto an exit tile
+        betweenEstates = new short[estates.size()][estates.size()];
+        for (int from = 0; from < estates.size(); from++) {
+            for (int to = 0; to < estates.size(); to++) {
+                int best = from == to ? 0 : UNREACHABLE;
+                for (EntranceTile entrance : estates.get(from).getEntranceTiles()) {
+                    int d = toEstate[to][entrance.getExitY() * 24 + entrance.getExitX()];
+                    if (d != UNREACHABLE) {
+                        best = Math.min(best, d + 1);
+                    }
+                }
+                betweenEstates[from][to] = (short) best;
+            }
+        }
+    }
+
+    /**
+     * Breadth-first search outwards from an Estate's entrances through open floor.
+     * Each entrance is only walked out of through its exit tile, which keeps the search
+     * out of the Estate's insides. Other Estates' entrances are not walked through,
+     * as stepping on one enters that Estate.
+     */
+    private static void fill(Board board, Estate estate, short[] distance) {
+        Arrays.fill(distance, UNREACHABLE);
+        int[] queue = new int[Reachability.TILES];
+        int head = 0;
+        int tail = 0;
+        for (EntranceTile entrance : estate.getEntranceTiles()) {
+            distance[entrance.yCoord * 24 + entrance.xCoord] = 0;
+            int exit = entrance.getExitY() * 24 + entrance.getExitX();
+            if (distance[exit] == UNREACHABLE) {
+                distance[exit] = 1;
+                queue[tail++] = exit;
+            }
+        }
+        while (head < tail) {
+            int index = queue[head++];
+            int y = index / 24;
+            int x = index % 24;
+            int[][] steps = {{y - 1, x}, {y, x + 1}, {y + 1, x}, {y, x - 1}};
+            for (int[] step : steps) {
+                if (board.getTile(step[0], step[1]) instanceof GameTile) {
+                    int next = step[0] * 24 + step[1];
+                    if (distance[next] == UNREACHABLE) {
+                        distance[next] = (short) (distance[index] + 1);
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of moves from a tile into an Estate.
+     *
+     * @param estate the index of the Estate
+     * @param y the row index
+     * @param x the column index
+     * @return the distance, or UNREACHABLE
+     */
+    public int distance(int estate, int y, int x) {
+        return toEstate[estate][y * 24 + x];
+    }
+
+    /**
+     * Gets the number of moves from a tile into an Estate.
+     *
+     * @param estate the index of the Estate
+     * @param tile the tile index, row * 24 + col
+     * @return the distance, or UNREACHABLE
+     */
+    public int distance(int estate, int tile) {
+        return toEstate[estate][tile];
+    }
+
+    /**
+     * Gets the number of moves from inside one Estate into another.
+     *
+     * @param from the index of the Estate being left
+     * @param to the index of the Estate being entered
+     * @return the distance, 0 if they are the same Estate
+     */
+    public int estateDistance(int from, int to) {
+        return betweenEstates[from][to];
+    }
+}
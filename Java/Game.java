@@ -18,6 +18,15 @@ public class Game {
     public enum TurnOrder {Lucilla, Bert, Malina, Percy}
     public enum Direction {Up, Right, Down, Left}
 
+    /**
+     * The outcome of a guess: the first player after the guesser, in turn order,
+     * who holds one of the guessed cards, and which of the guessed cards they hold.
+     *
+     * @param refuter the refuting player, or null if nobody can refute
+     * @param cards the mask of the guessed cards the refuter holds, 0 if nobody can refute
+     */
+    public record Refutation(Player refuter, long cards) {}
+
     private int playerCount;
     private int playerInitCount = 0;
     private List<String> names = new ArrayList<>();
@@ -31,8 +40,11 @@ public class Game {
         new Character("Percy", "P", 22, 11)));
     private List<Character> modifiableCharacterList = new ArrayList<>(characters);
     private Board board = new Board();
-    private List<GameTile> usedGameTiles = new ArrayList<>();
-    private List<String> currentGuess = new ArrayList<>();
+    private final RandomSource random;
+    private final Map<String, Card> cardsByName = new HashMap<>();
+    private long murderMask = 0;
+    private final int[] ownerSeat = new int[Card.COUNT];
+    private long currentGuess = 0;
 
     private Player turn = new Player(null,null,null,false);
     private TurnOrder currentTurn = TurnOrder.Lucilla;
@@ -44,6 +56,23 @@ public class Game {
 
     private String winner = "Nobody";
 
+    /**
+     * Constructor for a game with unpredictable randomness.
+     */
+    public Game() {
+        this(new SplittableRandomSource());
+    }
+
+    /**
+     * Constructor for a game whose random choices all come from the given source.
+     * A game built from a seeded source replays exactly.
+     *
+     * @param random the source of all randomness in the game
+     */
+    public Game(RandomSource random) {
+        this.random = random;
+    }
+
     // Getters and setters/adders
     public int getPlayerCount() {
         return this.playerCount;
@@ -75,6 +104,24 @@ public class Game {
     public List<Card> getCards() {
         return this.cards;
     }
+    public List<Character> getCharacters() {
+        return this.characters;
+    }
+    public List<Weapon> getWeapons() {
+        return this.weapons;
+    }
+    public Card getCard(String name) {
+        return this.cardsByName.get(name);
+    }
+    public Card getCard(int id) {
+        return this.cards.get(id);
+    }
+    public long getCurrentGuessMask() {
+        return this.currentGuess;
+    }
+    public long getMurderMask() {
+        return this.murderMask;
+    }
     public Board getBoard() {
         return this.board;
     }
@@ -120,11 +167,19 @@ public class Game {
     public String getWinner() {
         return this.winner;
     }
-    public void clearUsedTiles() {
-        for (GameTile t : usedGameTiles) {
-            t.clearStored();
+    public boolean isGameOver() {
+        if (!winner.equals("Nobody")) {
+            return true;
+        }
+        for (Player p : players) {
+            if (p.getIsEligible()) {
+                return false;
+            }
         }
-        this.usedGameTiles.clear();
+        return true;
+    }
+    public void clearUsedTiles() {
+        board.clearTrail();
     }
     public String findFullName(String shortName){
         for(Character c : characters){
@@ -140,6 +195,18 @@ public class Game {
         return null;
     }
 
+    /**
+     * Resets the per-turn flags and counters, and clears the trail left by the previous turn.
+     * Called whenever the tablet is passed to the next player.
+     */
+    public void startTurn() {
+        setDiceTotal(0);
+        setDiceRolled(false);
+        setGuessMade(false);
+        setRefuteCount(0);
+        clearUsedTiles();
+    }
+
     /**
      * Sets up the game by initializing the number of players, collecting player names,
      * determining starting player, allocating roles, and starting the game.
@@ -169,7 +236,6 @@ public class Game {
         players = orderedPlayers;
 
         // Randomly decides starting player
-        Random random = new Random();
         Player startingPlayer = null;
 
         while (startingPlayer == null) {
@@ -188,15 +254,20 @@ public class Game {
         turn = startingPlayer;
 
         // Update the tiles that contain characters on the board
-        for (Character c : characters) {
-            Tile t = board.getTile(c.getY(), c.getX());
-            if (t instanceof GameTile) {
-                ((GameTile) t).setStored(c);
+        board.beginBatch();
+        try {
+            for (Character c : characters) {
+                Tile t = board.getTile(c.getY(), c.getX());
+                if (t instanceof GameTile) {
+                    ((GameTile) t).setStored(c);
+                }
             }
-        }
 
-        // place weapons on board
-        initialiseWeapons();
+            // place weapons on board
+            initialiseWeapons();
+        } finally {
+            board.endBatch();
+        }
 
         // Set up and manage the cards
         initialiseCards();
@@ -233,7 +304,7 @@ public class Game {
         for (Weapon weapon : weapons) {
             boolean isAdded = false;
             while (!isAdded) {
-                int randomIndex = new Random().nextInt(estates.size());
+                int randomIndex = random.nextInt(estates.size());
                 Estate selectedEstate = estates.get(randomIndex);
                 if (selectedEstate.getItems().isEmpty()) {
                     addItemToEstate(weapon, selectedEstate);
@@ -245,6 +316,7 @@ public class Game {
 
     /**
      * Creates the game card instances.
+     * Each card's id is its position in the list, so the list can be indexed by id.
      */
     private void initialiseCards() {
         String[][] cardData = {{
@@ -253,7 +325,9 @@ public class Game {
             {"Haunted House", "Estate"}, {"Manic Manor", "Estate"}, {"Visitation Villa", "Estate"}, {"Calamity Castle", "Estate"}, {"Peril Palace", "Estate"}};
 
         for (String[] data : cardData) {
-            cards.add(new Card(false, null, data[0], data[1]));
+            Card card = new Card(cards.size(), false, null, data[0], Card.Type.valueOf(data[1]));
+            cards.add(card);
+            cardsByName.put(card.getName(), card);
         }
     }
 
@@ -264,10 +338,10 @@ public class Game {
     private void pickMurderCards() {
         List<String> typesPickedForMurder = new ArrayList<>();
         while (typesPickedForMurder.size() != 3) {
-            Random random = new Random();
             int randomIndex = random.nextInt(cards.size());
             if (!typesPickedForMurder.contains(cards.get(randomIndex).getType())) {
                 cards.get(randomIndex).setIsMurder(true);
+                murderMask |= cards.get(randomIndex).getMask();
                 typesPickedForMurder.add(cards.get(randomIndex).getType());
             }
         }
@@ -279,12 +353,14 @@ public class Game {
      */
     private void distributeCardsToPlayers() {
 
+        // Murder cards are owned by nobody
+        Arrays.fill(ownerSeat, -1);
+
         // Gets a list of the non-murder cards that'll be distributed to the players
         List<Card> nonMurderCards = new ArrayList<>(cards);
         nonMurderCards.removeIf(Card::getIsMurder);
 
         // Assigns those cards to players randomly
-        Random random = new Random();
         while (!nonMurderCards.isEmpty()) {
             for (Player player : players) {
                 if (nonMurderCards.isEmpty()) {
@@ -297,6 +373,46 @@ public class Game {
                 player.addCard(cardToAssign);
                 player.getWorksheet().addCard(cardToAssign);
                 cardToAssign.setOwner(player);
+                ownerSeat[cardToAssign.getId()] = players.indexOf(player);
+            }
+        }
+        startDeductions();
+    }
+
+    /**
+     * Gives every player a fresh deduction engine, knowing their own hand and the hand sizes.
+     */
+    private void startDeductions() {
+        int[] handSizes = new int[players.size()];
+        for (int seat = 0; seat < players.size(); seat++) {
+            handSizes[seat] = players.get(seat).getCardCount();
+        }
+        for (int seat = 0; seat < players.size(); seat++) {
+            Player p = players.get(seat);
+            p.getWorksheet().setDeduction(new Deduction(handSizes, seat, p.getHandMask()));
+        }
+    }
+
+    /**
+     * Tells every player's deduction engine what everyone saw of the current guess:
+     * who refuted it, if anyone, or that a solve attempt was wrong.
+     * 
+     * @param solve whether the guess was a solve attempt
+     */
+    private void publishGuess(boolean solve) {
+        int guesser = players.indexOf(turn);
+        int refuterSeat = solve ? -1 : players.indexOf(getRefutation().refuter());
+        for (Player p : players) {
+            Deduction deduction = p.getWorksheet().getDeduction();
+            if (deduction == null) {
+                continue;
+            }
+            if (solve) {
+                deduction.wrongSolve(currentGuess);
+            } else if (refuterSeat < 0) {
+                deduction.unrefuted(guesser, currentGuess);
+            } else {
+                deduction.refuted(guesser, refuterSeat, currentGuess);
             }
         }
     }
@@ -305,6 +421,7 @@ public class Game {
      * Handles player guesses.
      * Sets the input strings as part of the game's current guess.
      * Can also handle player solve attempts.
+     * Every player's deduction engine is told who could refute the guess, or that a solve attempt was wrong.
      * 
      * @param character the guessed character
      * @param weapon the guessed weapon
@@ -318,23 +435,25 @@ public class Game {
         String estate = p.getCharacter().getEstate().getName();
 
         // updating the current guess 
-        currentGuess = new ArrayList<String>();
-        currentGuess.add(estate);
-        currentGuess.add(character);
-        currentGuess.add(weapon);
-
-        // teleport the guessed character to the current estate
-        for (Character c : characters) {
-            if (c.getName().equals(character)) {
-                teleportItem(c, p.getCharacter().getEstate());
-            }              
-        }
+        currentGuess = getCard(estate).getMask() | getCard(character).getMask() | getCard(weapon).getMask();
+
+        // teleport the guessed character and weapon to the current estate, as one change to the board
+        board.beginBatch();
+        try {
+            for (Character c : characters) {
+                if (c.getName().equals(character)) {
+                    teleportItem(c, p.getCharacter().getEstate());
+                }              
+            }
 
-        // teleport the guessed weapon to the current estate
-        for (Weapon w : weapons) {
-            if (w.getName().equals(weapon)) {
-                teleportItem(w, p.getCharacter().getEstate());
+            // teleport the guessed weapon to the current estate
+            for (Weapon w : weapons) {
+                if (w.getName().equals(weapon)) {
+                    teleportItem(w, p.getCharacter().getEstate());
+                }
             }
+        } finally {
+            board.endBatch();
         }
 
         // forfeiting all remaining player moves
@@ -349,6 +468,7 @@ public class Game {
             }
         }
 
+        publishGuess(solve);
         return 0;
     }
 
@@ -358,29 +478,7 @@ public class Game {
      * @return true if correct, false otherwise
      */
     private boolean didPlayerWin() {
-        boolean win = true;
-            for (Card c : cards) {
-                if (c.getIsMurder()) {
-                    switch (c.getType()) {
-                        case "Estate" -> {
-                            if (!c.getName().equals(currentGuess.get(0))) {
-                                win = false;
-                            }
-                        }
-                        case "Character" -> {
-                            if (!c.getName().equals(currentGuess.get(1))) {
-                                win = false;
-                            }
-                        }
-                        case "Weapon" -> {
-                            if (!c.getName().equals(currentGuess.get(2))) {
-                                win = false;
-                            }
-                        }
-                    }
-                }
-            }
-        return win;
+        return currentGuess == murderMask;
     }
 
     /**
@@ -393,23 +491,177 @@ public class Game {
      */
     public List<String> getRefuteableCards(Player p) {
         List<String> refuteableCards = new ArrayList<>();
-        for (Card c : p.getCards()) {
-            if (currentGuess.contains(c.getName())) {
-                refuteableCards.add(c.getName());
-            }
+        long refuteable = getRefuteableMask(p);
+        while (refuteable != 0) {
+            refuteableCards.add(cards.get(Long.numberOfTrailingZeros(refuteable)).getName());
+            refuteable &= refuteable - 1;
         }
         return refuteableCards;
     }
 
+    /**
+     * Gets all refuteable cards of the refuter as a card mask.
+     * 
+     * @param p the refuter
+     * 
+     * @return the mask of the refuter's cards that are in the current guess
+     */
+    public long getRefuteableMask(Player p) {
+        return p.getHandMask() & currentGuess;
+    }
+
+    /**
+     * Resolves the refutation of the current guess in one call.
+     * Looks up the seat of each guessed card's owner and picks the owner closest
+     * after the guesser in turn order, so the cost is three lookups
+     * however many players pass before them.
+     * 
+     * @return the refutation, with a null refuter if nobody can refute
+     */
+    public Refutation getRefutation() {
+        int guesser = players.indexOf(turn);
+        int closest = players.size();
+        long guess = currentGuess;
+        while (guess != 0) {
+            int seat = ownerSeat[Long.numberOfTrailingZeros(guess)];
+            guess &= guess - 1;
+            if (seat >= 0 && seat != guesser) {
+                closest = Math.min(closest, Math.floorMod(seat - guesser, players.size()));
+            }
+        }
+        if (closest == players.size()) {
+            return new Refutation(null, 0);
+        }
+        Player refuter = players.get((guesser + closest) % players.size());
+        return new Refutation(refuter, getRefuteableMask(refuter));
+    }
+
+    /**
+     * The refuter shows one of their refuteable cards to the current player,
+     * who notes it on their worksheet and in their deduction engine.
+     * 
+     * @param cardName the name of the card shown
+     */
+    public void refute(String cardName) {
+        Card card = getCard(cardName);
+        turn.getWorksheet().addShownCard(card);
+        Deduction deduction = turn.getWorksheet().getDeduction();
+        if (deduction != null) {
+            deduction.shown(players.indexOf(getRefutation().refuter()), card.getMask(), currentGuess);
+        }
+    }
+
+    /**
+     * Restores the game to a state captured from it, or from another game with the same players.
+     * The Characters, Weapons and trail are put back as one change to the board, and the turn,
+     * dice, eligibility and winner are set. If the state deals the cards differently, the hands,
+     * worksheets and solution are dealt again to match it.
+     * 
+     * @param state the state to restore
+     */
+    public void restore(GameState state) {
+        List<Estate> estates = board.getEstates();
+        board.beginBatch();
+        try {
+            // Lift every Character off the board before putting any back, so that none is overwritten
+            for (Character c : characters) {
+                if (c.getEstate() != null) {
+                    removeItemFromEstate(c, c.getEstate());
+                } else {
+                    ((GameTile) board.getTile(c.getY(), c.getX())).clearStored();
+                }
+            }
+            for (Character c : characters) {
+                int position = state.getPosition(getCard(c.getName()).getId());
+                int estate = GameState.estateOf(position);
+                if (estate >= 0) {
+                    addItemToEstate(c, estates.get(estate));
+                } else {
+                    c.setY(position / 24);
+                    c.setX(position % 24);
+                    ((GameTile) board.getTile(c.getY(), c.getX())).setStored(c);
+                }
+            }
+            for (Weapon w : weapons) {
+                Estate estate = estates.get(state.getWeaponEstate(getCard(w.getName()).getId()));
+                if (w.getEstate() != estate) {
+                    teleportItem(w, estate);
+                }
+            }
+            board.clearTrail();
+            for (int tile = 0; tile < Reachability.TILES; tile++) {
+                if (state.isTrail(tile)) {
+                    board.markTrail(tile / 24, tile % 24);
+                }
+            }
+        } finally {
+            board.endBatch();
+        }
+
+        turn = players.get(state.getTurn());
+        currentTurn = TurnOrder.valueOf(turn.getCharacter().getName());
+        diceTotal = state.getDice();
+        diceRolled = state.getDiceRolled();
+        guessMade = state.getGuessMade();
+        winner = state.getWinner() >= 0 ? players.get(state.getWinner()).getName() : "Nobody";
+        for (int seat = 0; seat < players.size(); seat++) {
+            players.get(seat).setIsEligible(state.isEligible(seat));
+        }
+
+        boolean dealt = murderMask == state.getSolution();
+        for (int seat = 0; seat < players.size() && dealt; seat++) {
+            Player p = players.get(seat);
+            dealt = p.getHandMask() == state.getHand(seat) && p.getWorksheet().getKnownMask() == state.getKnown(seat);
+        }
+        if (!dealt) {
+            dealCards(state);
+        }
+    }
+
+    /**
+     * Deals the cards as a state has them: the solution, every hand, and the cards
+     * each player has been shown, which are the cards they know beyond their hand.
+     * 
+     * @param state the state to deal from
+     */
+    private void dealCards(GameState state) {
+        murderMask = state.getSolution();
+        Arrays.fill(ownerSeat, -1);
+        for (Card card : cards) {
+            card.setIsMurder((murderMask & card.getMask()) != 0);
+            card.setOwner(null);
+        }
+        for (int seat = 0; seat < players.size(); seat++) {
+            Player p = players.get(seat);
+            p.clearCards();
+            p.getWorksheet().clear();
+            for (Card card : cards) {
+                if ((state.getHand(seat) & card.getMask()) != 0) {
+                    p.addCard(card);
+                    p.getWorksheet().addCard(card);
+                    card.setOwner(p);
+                    ownerSeat[card.getId()] = seat;
+                } else if ((state.getKnown(seat) & card.getMask()) != 0) {
+                    p.getWorksheet().addShownCard(card);
+                }
+            }
+        }
+        // Who showed each card is not kept in a state, so the engines only learn that they are not the solution
+        startDeductions();
+        for (Player p : players) {
+            p.getWorksheet().getDeduction().ruleOut(p.getWorksheet().getShownMask());
+        }
+    }
+
     /**
      * Method to randomly return a number 1-6.
+     * Draws from the game's own RandomSource, so it never allocates
+     * and never contends with games running on other threads.
      * 
      * @return the outcome of rolling the dice
      */
     public int rollDice() {
-        double max = 6;
-        double min = 1;
-        return (int) (Math.random() * (max - min + 1) + min);
+        return random.nextInt(6) + 1;
     }
 
     /**
@@ -447,9 +699,12 @@ public class Game {
      * @param toEstate the Estate being transported to
      */
     private void teleportItem(Item item, Estate toEstate) {
-        GameTile current = (GameTile) board.getTile(item.getY(), item.getX());
-        current.clearStored();
         Estate fromEstate = item.getEstate();
+        // Items inside an Estate no longer occupy the Tile their coordinates point at
+        if (fromEstate == null) {
+            GameTile current = (GameTile) board.getTile(item.getY(), item.getX());
+            current.clearStored();
+        }
         if(fromEstate != null){
             removeItemFromEstate(item, fromEstate);
         }
@@ -472,8 +727,8 @@ public class Game {
             estate.updateContents();
             character.setEstate(estate);
             GameTile current = (GameTile) board.getTile(character.getY(), character.getX());
-            current.setStored(new Item("Used", "+", character.getX(), character.getY()));
-            usedGameTiles.add(current);
+            current.clearStored();
+            board.markTrail(character.getY(), character.getX());
             return 1;
         }
         return 0;
@@ -521,8 +776,8 @@ public class Game {
             GameTile next = (GameTile) board.getTile(newY, newX);
             next.setStored(character);
             GameTile current = (GameTile) board.getTile(character.getY(), character.getX());
-            current.setStored(new Item("Used", "+", character.getX(), character.getY()));
-            usedGameTiles.add(current);
+            current.clearStored();
+            board.markTrail(character.getY(), character.getX());
             character.setX(newX);
             character.setY(newY);
             return 1;
@@ -534,6 +789,7 @@ public class Game {
      * Directional movement of a character.
      * Uses the moveChar method but only to a fixed number of Tiles - 
      * the Tiles immediately adjacent to the character.
+     * Board listeners are told about the whole step in one batch.
      * 
      * @param character the character being moved
      * @param direction the direction being moved in
@@ -541,6 +797,46 @@ public class Game {
      * @return 1 if the movement successfully occurred, 0 otherwise
      */
     public int moveInDirection(Character character, Direction direction) {
+        board.beginBatch();
+        try {
+            return stepInDirection(character, direction);
+        } finally {
+            board.endBatch();
+        }
+    }
+
+    /**
+     * Moves a character several steps in one go, spending a move from the dice total for each
+     * step taken. Steps that are blocked are skipped, and no steps are taken once the dice
+     * total runs out. Board listeners are told about all of the steps in one batch.
+     * 
+     * @param character the character being moved
+     * @param directions the directions of the steps, in order
+     * 
+     * @return the number of steps taken
+     */
+    public int applyMoves(Character character, List<Direction> directions) {
+        int moved = 0;
+        board.beginBatch();
+        try {
+            for (Direction direction : directions) {
+                if (diceTotal <= 0) {
+                    break;
+                }
+                int step = stepInDirection(character, direction);
+                decrementDiceTotal(step);
+                moved += step;
+            }
+        } finally {
+            board.endBatch();
+        }
+        return moved;
+    }
+
+    /**
+     * Moves a character one step, as moveInDirection, without opening a batch of board changes.
+     */
+    private int stepInDirection(Character character, Direction direction) {
 
         // Find coordinates of next direction, or which exit to take
         int newY = character.getY();
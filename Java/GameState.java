@@ -0,0 +1,322 @@
+import java.util.*;
+
+/**
+ * A compact copy of a game of HobbyDetectives, for search.
+ * Everything a playout needs is held in one int array, so a state is copied with a single
+ * System.arraycopy and a search can clone it thousands of times per move without allocating.
+ * A state can be captured from a live Game, and a Game can be restored to a state.
+ *
+ * Cards are referred to by id and sets of cards by mask, as in Card. Seats are indexed in
+ * turn order, as in Game.getPlayers(). A Character's position is its tile index,
+ * row * 24 + col, or ESTATE_BASE plus the index of the Estate it is in, as in Reachability;
+ * Estates are indexed as in Board.getEstates(). Weapons are always in an Estate.
+ * The trail walked this turn is a bitboard of tile indices, packed 32 to an int.
+ */
+public final class GameState {
+    public static final int CHARACTERS = 4;
+    public static final int WEAPONS = 5;
+    public static final int ESTATES = 5;
+    public static final int MAX_SEATS = 4;
+
+    /**
+     * The position of the first Estate.
+     */
+    public static final int ESTATE_BASE = Reachability.ESTATE_BASE;
+
+    /**
+     * The masks of all the cards, and of each type of card.
+     */
+    public static final int ALL_CARDS = (1 << Card.COUNT) - 1;
+    public static final int CHARACTER_CARDS = (1 << CHARACTERS) - 1;
+    public static final int WEAPON_CARDS = ((1 << WEAPONS) - 1) << CHARACTERS;
+    public static final int ESTATE_CARDS = ALL_CARDS & ~CHARACTER_CARDS & ~WEAPON_CARDS;
+
+    /**
+     * The id of each Estate's card, by Estate index, and the first weapon card id.
+     */
+    private static final int[] ESTATE_CARD = {9, 12, 10, 13, 11};
+    private static final int FIRST_WEAPON = CHARACTERS;
+
+    /**
+     * The bits of the turn flags.
+     */
+    private static final int DICE_ROLLED = 1;
+    private static final int GUESS_MADE = 2;
+
+    // Layout of the array
+    private static final int TURN = 0;
+    private static final int DICE = 1;
+    private static final int FLAGS = 2;
+    private static final int SEATS = 3;
+    private static final int ELIGIBLE = 4;
+    private static final int SOLUTION = 5;
+    private static final int WINNER = 6;
+    private static final int POSITION = 7;
+    private static final int WEAPON_ESTATE = POSITION + CHARACTERS;
+    private static final int SEAT_CHARACTER = WEAPON_ESTATE + WEAPONS;
+    private static final int HAND = SEAT_CHARACTER + MAX_SEATS;
+    private static final int KNOWN = HAND + MAX_SEATS;
+    private static final int TRAIL = KNOWN + MAX_SEATS;
+    private static final int TRAIL_INTS = Reachability.TILES / 32;
+
+    /**
+     * The number of ints in a state.
+     */
+    public static final int LENGTH = TRAIL + TRAIL_INTS;
+
+    private final int[] data = new int[LENGTH];
+
+    /**
+     * Creates an empty state, to be filled by copying.
+     */
+    public GameState() {
+        data[WINNER] = -1;
+    }
+
+    /**
+     * Overwrites this state with another.
+     *
+     * @param other the state to copy
+     */
+    public void copyFrom(GameState other) {
+        System.arraycopy(other.data, 0, data, 0, LENGTH);
+    }
+
+    /**
+     * Creates a copy of this state.
+     *
+     * @return the copy
+     */
+    public GameState copy() {
+        GameState copy = new GameState();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof GameState && Arrays.equals(data, ((GameState) other).data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(data);
+    }
+
+    /**
+     * Captures the whole of a live game: every position, the trail, the turn and dice,
+     * who is still eligible, every hand, what each player knows, the solution and the winner.
+     *
+     * @param game the game, which must have been set up
+     * @return the state
+     */
+    public static GameState capture(Game game) {
+        GameState state = new GameState();
+        List<Estate> estates = game.getBoard().getEstates();
+        for (Character c : game.getCharacters()) {
+            int id = game.getCard(c.getName()).getId();
+            state.data[POSITION + id] = c.getEstate() != null
+                    ? ESTATE_BASE + estates.indexOf(c.getEstate()) : c.getY() * 24 + c.getX();
+        }
+        for (Weapon w : game.getWeapons()) {
+            state.data[WEAPON_ESTATE + game.getCard(w.getName()).getId() - FIRST_WEAPON] = estates.indexOf(w.getEstate());
+        }
+        Board board = game.getBoard();
+        for (int tile = 0; tile < Reachability.TILES; tile++) {
+            if (board.isTrail(tile / 24, tile % 24)) {
+                state.markTrail(tile);
+            }
+        }
+        List<Player> players = game.getPlayers();
+        state.data[SEATS] = players.size();
+        state.data[TURN] = players.indexOf(game.getCurrentPlayer());
+        state.data[DICE] = game.getDiceTotal();
+        state.data[FLAGS] = (game.getDiceRolled() ? DICE_ROLLED : 0) | (game.getGuessMade() ? GUESS_MADE : 0);
+        state.data[SOLUTION] = (int) game.getMurderMask();
+        for (int seat = 0; seat < players.size(); seat++) {
+            Player p = players.get(seat);
+            state.data[SEAT_CHARACTER + seat] = game.getCard(p.getCharacter().getName()).getId();
+            state.data[HAND + seat] = (int) p.getHandMask();
+            state.data[KNOWN + seat] = (int) p.getWorksheet().getKnownMask();
+            if (p.getIsEligible()) {
+                state.data[ELIGIBLE] |= 1 << seat;
+            }
+            if (p.getName().equals(game.getWinner())) {
+                state.data[WINNER] = seat;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Captures what one player can see of a live game: as capture, but with the other hands,
+     * the solution, and what the other players know left empty, to be filled in by whoever
+     * is guessing at them.
+     *
+     * @param game the game, which must have been set up
+     * @param observer the player whose view is captured
+     * @return the state
+     */
+    public static GameState observe(Game game, Player observer) {
+        GameState state = capture(game);
+        int seat = game.getPlayers().indexOf(observer);
+        state.data[SOLUTION] = 0;
+        for (int other = 0; other < state.getSeats(); other++) {
+            if (other != seat) {
+                state.data[HAND + other] = 0;
+                state.data[KNOWN + other] = 0;
+            }
+        }
+        return state;
+    }
+
+    public int getTurn() {
+        return data[TURN];
+    }
+    public void setTurn(int seat) {
+        data[TURN] = seat;
+    }
+    public int getDice() {
+        return data[DICE];
+    }
+    public void setDice(int dice) {
+        data[DICE] = dice;
+    }
+    public boolean getDiceRolled() {
+        return (data[FLAGS] & DICE_ROLLED) != 0;
+    }
+    public void setDiceRolled(boolean rolled) {
+        data[FLAGS] = rolled ? data[FLAGS] | DICE_ROLLED : data[FLAGS] & ~DICE_ROLLED;
+    }
+    public boolean getGuessMade() {
+        return (data[FLAGS] & GUESS_MADE) != 0;
+    }
+    public void setGuessMade(boolean guessed) {
+        data[FLAGS] = guessed ? data[FLAGS] | GUESS_MADE : data[FLAGS] & ~GUESS_MADE;
+    }
+    public int getSeats() {
+        return data[SEATS];
+    }
+    public boolean isEligible(int seat) {
+        return (data[ELIGIBLE] & (1 << seat)) != 0;
+    }
+    public void setEligible(int seat, boolean eligible) {
+        data[ELIGIBLE] = eligible ? data[ELIGIBLE] | (1 << seat) : data[ELIGIBLE] & ~(1 << seat);
+    }
+    public boolean anyEligible() {
+        return data[ELIGIBLE] != 0;
+    }
+    public int getSolution() {
+        return data[SOLUTION];
+    }
+    public void setSolution(int mask) {
+        data[SOLUTION] = mask;
+    }
+    public int getWinner() {
+        return data[WINNER];
+    }
+    public void setWinner(int seat) {
+        data[WINNER] = seat;
+    }
+    public int getSeatCharacter(int seat) {
+        return data[SEAT_CHARACTER + seat];
+    }
+    public int getHand(int seat) {
+        return data[HAND + seat];
+    }
+    public void setHand(int seat, int mask) {
+        data[HAND + seat] = mask;
+    }
+    public int getKnown(int seat) {
+        return data[KNOWN + seat];
+    }
+    public void setKnown(int seat, int mask) {
+        data[KNOWN + seat] = mask;
+    }
+
+    /**
+     * Gets the position of a Character.
+     *
+     * @param character the Character's card id
+     * @return the tile index, or ESTATE_BASE plus the Estate index
+     */
+    public int getPosition(int character) {
+        return data[POSITION + character];
+    }
+
+    /**
+     * Sets the position of a Character.
+     *
+     * @param character the Character's card id
+     * @param position the tile index, or ESTATE_BASE plus the Estate index
+     */
+    public void setPosition(int character, int position) {
+        data[POSITION + character] = position;
+    }
+
+    /**
+     * Gets the Estate a Weapon is in.
+     *
+     * @param weapon the Weapon's card id
+     * @return the Estate index
+     */
+    public int getWeaponEstate(int weapon) {
+        return data[WEAPON_ESTATE + weapon - FIRST_WEAPON];
+    }
+
+    /**
+     * Moves a Weapon into an Estate.
+     *
+     * @param weapon the Weapon's card id
+     * @param estate the Estate index
+     */
+    public void setWeaponEstate(int weapon, int estate) {
+        data[WEAPON_ESTATE + weapon - FIRST_WEAPON] = estate;
+    }
+
+    /**
+     * Checks whether a tile has been walked over this turn.
+     *
+     * @param tile the tile index
+     * @return true if the tile is on the trail
+     */
+    public boolean isTrail(int tile) {
+        return (data[TRAIL + (tile >>> 5)] & (1 << tile)) != 0;
+    }
+
+    /**
+     * Marks a tile as walked over this turn.
+     *
+     * @param tile the tile index
+     */
+    public void markTrail(int tile) {
+        data[TRAIL + (tile >>> 5)] |= 1 << tile;
+    }
+
+    /**
+     * Clears the trail, as at the start of a turn.
+     */
+    public void clearTrail() {
+        Arrays.fill(data, TRAIL, TRAIL + TRAIL_INTS, 0);
+    }
+
+    /**
+     * Gets the Estate a position is inside.
+     *
+     * @param position a Character's position
+     * @return the Estate index, or -1 if the position is a tile
+     */
+    public static int estateOf(int position) {
+        return position >= ESTATE_BASE ? position - ESTATE_BASE : -1;
+    }
+
+    /**
+     * Gets the card id of an Estate.
+     *
+     * @param estate the Estate index
+     * @return the card id
+     */
+    public static int estateCard(int estate) {
+        return ESTATE_CARD[estate];
+    }
+}
@@ -8,18 +8,25 @@
 public class GameTile extends Tile {
 
     /**
-     * The item stored on this game tile, initialized as an empty item.
+     * The item stored on this game tile, initialized as the shared empty item.
      */
-    private Item stored = new Item("empty", "", 0, 0);
+    private Item stored = Item.EMPTY;
+
+    /**
+     * The board this tile belongs to, whose occupancy bitboard is kept in sync with this tile.
+     */
+    private final Board board;
 
     /**
      * Constructor for the `GameTile` class.
      *
      * @param yCoord The Y-coordinate of the game tile.
      * @param xCoord The X-coordinate of the game tile.
+     * @param board  The board this tile belongs to.
      */
-    public GameTile(int yCoord, int xCoord) {
+    public GameTile(int yCoord, int xCoord, Board board) {
         super(yCoord, xCoord);
+        this.board = board;
     }
 
     /**
@@ -28,23 +35,40 @@ public class GameTile extends Tile {
      * @param aStored The item to be stored.
      */
     public void setStored(Item aStored) {
-        stored = aStored;
+        if (stored != aStored) {
+            stored = aStored;
+            board.setItem(yCoord, xCoord, aStored);
+            board.tileChanged(yCoord, xCoord);
+        }
     }
 
     /**
      * Gets the item stored on this game tile.
+     * An otherwise empty tile that is on the board's trail this turn reports the shared used item.
      *
      * @return The item stored on the tile.
      */
     public Item getStored() {
+        if (stored == Item.EMPTY && board.isTrail(yCoord, xCoord)) {
+            return Item.USED;
+        }
         return stored;
     }
 
     /**
-     * Clears the item stored on this game tile, setting it to an empty item.
+     * Checks whether this game tile holds nothing, not even the trail.
+     *
+     * @return true if the tile stores the empty item.
+     */
+    public boolean isEmpty() {
+        return getStored() == Item.EMPTY;
+    }
+
+    /**
+     * Clears the item stored on this game tile, setting it to the shared empty item.
      */
     public void clearStored() {
-        stored = new Item("empty", "", 0, 0);
+        setStored(Item.EMPTY);
     }
 
     /**
@@ -55,10 +79,10 @@ public class GameTile extends Tile {
      * @return A string representation of the tile's content.
      */
     public String draw() {
-        if (stored.getName().equals("empty")) {
+        if (isEmpty()) {
             return getOutput();
         } else {
-            return stored.getDisplayIcon();
+            return getStored().getDisplayIcon();
         }
     }
 }
\ No newline at end of file
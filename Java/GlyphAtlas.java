@@ -0,0 +1,90 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Pre-rendered item letters for the board view.
+ * Every icon an Item can show is drawn once, at the position it takes when centred in
+ * a square of the board's size, into a small image of its own; drawing a letter on a
+ * tile is then one image blit, with no Font or FontMetrics work.
+ *
+ * An atlas is fixed to one square size. The view builds a new one when the size changes.
+ */
+public class GlyphAtlas {
+    /**
+     * The display icons of the Characters, the Weapons and the trail, in atlas order.
+     */
+    public static final String ICONS = "LBMPbskvi+";
+
+    /**
+     * Each icon cropped to the pixels it covers, with premultiplied alpha so that
+     * blending it onto a tile is as cheap as possible, and where its top-left corner
+     * sits within a square.
+     */
+    private final BufferedImage[] images = new BufferedImage[ICONS.length()];
+    private final int[] offsetX = new int[ICONS.length()];
+    private final int[] offsetY = new int[ICONS.length()];
+    private final int squareWidth;
+    private final int squareHeight;
+
+    /**
+     * Constructor for an atlas at one square size.
+     *
+     * @param font the font to draw the letters in
+     * @param color the colour to draw the letters in
+     * @param squareWidth the width of a board square
+     * @param squareHeight the height of a board square
+     */
+    public GlyphAtlas(Font font, Color color, int squareWidth, int squareHeight) {
+        this.squareWidth = squareWidth;
+        this.squareHeight = squareHeight;
+        Graphics2D measure = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE).createGraphics();
+        FontMetrics fm = measure.getFontMetrics(font);
+        for (int i = 0; i < ICONS.length(); i++) {
+            String icon = ICONS.substring(i, i + 1);
+
+            // Centred the same way the board has always centred its letters
+            int x = (squareWidth - fm.charWidth(icon.charAt(0))) / 2;
+            int y = (squareHeight + fm.getAscent() - fm.getDescent()) / 2;
+            Rectangle bounds = font.createGlyphVector(measure.getFontRenderContext(), icon).getPixelBounds(null, 0, 0);
+
+            images[i] = new BufferedImage(Math.max(1, bounds.width), Math.max(1, bounds.height), BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = images[i].createGraphics();
+            g.setFont(font);
+            g.setColor(color);
+            g.drawString(icon, -bounds.x, -bounds.y);
+            g.dispose();
+            offsetX[i] = x + bounds.x;
+            offsetY[i] = y + bounds.y;
+        }
+        measure.dispose();
+    }
+
+    /**
+     * Checks whether this atlas was drawn for a square size.
+     *
+     * @param width the width of a board square
+     * @param height the height of a board square
+     * @return true if the atlas can be used at that size
+     */
+    public boolean fits(int width, int height) {
+        return squareWidth == width && squareHeight == height;
+    }
+
+    /**
+     * Draws an icon onto a square.
+     *
+     * @param g the graphics to draw with
+     * @param icon the display icon of the item
+     * @param left the x-coordinate of the square's left edge
+     * @param top the y-coordinate of the square's top edge
+     * @return false if the icon is not in the atlas, in which case nothing is drawn
+     */
+    public boolean draw(Graphics g, String icon, int left, int top) {
+        int i = icon.length() == 1 ? ICONS.indexOf(icon.charAt(0)) : -1;
+        if (i < 0) {
+            return false;
+        }
+        g.drawImage(images[i], left + offsetX[i], top + offsetY[i], null);
+        return true;
+    }
+}
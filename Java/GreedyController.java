@@ -0,0 +1,146 @@
+import java.util.*;
+
+/**
+ * A simple computer controller that walks towards the nearest Estate it has not yet seen.
+ * It guesses cards it has not yet seen, and attempts to solve once only
+ * one unseen card of each type remains and it is standing in the unseen Estate,
+ * or once nobody could refute one of its guesses and it is back in that guess's Estate.
+ */
+public class GreedyController implements PlayerController {
+    private final RandomSource random;
+
+    /**
+     * The last guess this controller made, the Estate it was made in, and how many cards it had
+     * been shown before making it. If no new card has been shown since, nobody could refute the
+     * guess, so it must be the solution.
+     */
+    private Guess lastGuess;
+    private String lastGuessEstate;
+    private int shownBeforeLastGuess;
+
+    /**
+     * The solution proven by a guess nobody could refute, and the Estate it was made in,
+     * until the controller gets back there to solve. Null while nothing is proven.
+     */
+    private Guess provenSolution;
+    private String provenEstate;
+
+    /**
+     * Constructor for the GreedyController class.
+     *
+     * @param random the source of randomness for this controller's decisions
+     */
+    public GreedyController(RandomSource random) {
+        this.random = random;
+    }
+
+    @Override
+    public Game.Direction chooseMove(Game game, Player player) {
+        Board board = game.getBoard();
+        List<Estate> estates = board.getEstates();
+        List<String> unseenEstates = provenSolution != null ? List.of(provenEstate) : unseenCards(game, player, Card.Type.Estate);
+        Character character = player.getCharacter();
+        Estate current = character.getEstate();
+
+        // Stop inside an unseen Estate so that a guess can be made there
+        if (current != null && unseenEstates.contains(current.getName())) {
+            return null;
+        }
+
+        DistanceTable distances = DistanceTable.get();
+
+        // Head for the closest unseen Estate, leaving through the closest exit if inside one
+        Game.Direction best = null;
+        int bestDistance = DistanceTable.UNREACHABLE;
+        for (Game.Direction direction : Game.Direction.values()) {
+            int y = character.getY();
+            int x = character.getX();
+            if (current != null) {
+                EntranceTile exit = current.getEntranceTiles().get(direction.ordinal());
+                y = exit.getExitY();
+                x = exit.getExitX();
+            } else {
+                switch (direction) {
+                    case Up -> y--;
+                    case Down -> y++;
+                    case Left -> x--;
+                    case Right -> x++;
+                }
+            }
+            if (!board.isSafeMove(y, x)) {
+                continue;
+            }
+            for (int e = 0; e < estates.size(); e++) {
+                if (estates.get(e) != current && unseenEstates.contains(estates.get(e).getName())) {
+                    int distance = distances.distance(e, y, x);
+                    if (distance < bestDistance || (distance == bestDistance && random.nextInt(2) == 0)) {
+                        best = direction;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return best != null ? best : Game.Direction.values()[random.nextInt(4)];
+    }
+
+    @Override
+    public Guess chooseGuess(Game game, Player player) {
+        List<String> characters = unseenCards(game, player, Card.Type.Character);
+        List<String> weapons = unseenCards(game, player, Card.Type.Weapon);
+        List<String> estates = unseenCards(game, player, Card.Type.Estate);
+        String estate = player.getCharacter().getEstate().getName();
+
+        int shown = player.getWorksheet().getShownCards().size();
+        if (lastGuess != null && shown == shownBeforeLastGuess) {
+            provenSolution = new Guess(lastGuess.character(), lastGuess.weapon(), true);
+            provenEstate = lastGuessEstate;
+        }
+        lastGuess = null;
+
+        // The proof only holds in the Estate the unrefuted guess was made in
+        if (provenSolution != null) {
+            if (!estate.equals(provenEstate)) {
+                return null;
+            }
+            Guess solve = provenSolution;
+            provenSolution = null;
+            provenEstate = null;
+            return solve;
+        }
+        if (!estates.contains(estate)) {
+            return null;
+        }
+        if (characters.size() == 1 && weapons.size() == 1 && estates.size() == 1) {
+            return new Guess(characters.get(0), weapons.get(0), true);
+        }
+        lastGuess = new Guess(characters.get(random.nextInt(characters.size())),
+                weapons.get(random.nextInt(weapons.size())), false);
+        lastGuessEstate = estate;
+        shownBeforeLastGuess = shown;
+        return lastGuess;
+    }
+
+    @Override
+    public String chooseRefute(Game game, Player refuter, List<String> refuteableCards) {
+        return refuteableCards.get(random.nextInt(refuteableCards.size()));
+    }
+
+    /**
+     * Gets the names of the cards of a type that the player has neither been dealt nor been shown.
+     *
+     * @param game the game being played
+     * @param player the player whose worksheet is consulted
+     * @param type the card type
+     * @return the names of the unseen cards
+     */
+    private List<String> unseenCards(Game game, Player player, Card.Type type) {
+        long known = player.getWorksheet().getKnownMask();
+        List<String> unseen = new ArrayList<>();
+        for (Card c : game.getCards()) {
+            if (c.getCardType() == type && (known & c.getMask()) == 0) {
+                unseen.add(c.getName());
+            }
+        }
+        return unseen;
+    }
+}
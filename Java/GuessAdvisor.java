@@ -0,0 +1,242 @@
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Suggests which Character and Weapon to guess, by how much each guess is expected to
+ * narrow down the solution.
+ *
+ * A guess is scored by its expected information gain: the entropy of the distribution over the
+ * 100 possible solutions now, less its expected entropy once the guesser sees how the guess is
+ * answered, that is which seat refutes it and which card they show, or that nobody can.
+ * Both are worked out over the weighted deals of a Belief, with refuters assumed to pick
+ * uniformly among the guessed cards they hold, as Deduction assumes.
+ *
+ * All 20 guesses are scored in parallel on the common ForkJoinPool. Rankings are cached by the
+ * guesser's Deduction history and the Estate, so asking again before anything new is seen is free.
+ */
+public final class GuessAdvisor {
+    /**
+     * A guess and its expected information gain, in bits.
+     *
+     * @param character the Character's card id
+     * @param weapon the Weapon's card id
+     * @param gain the expected reduction in the entropy of the solution, in bits
+     */
+    public record Suggestion(int character, int weapon, double gain) {}
+
+    /**
+     * The number of rankings to remember.
+     */
+    private static final int CACHE_SIZE = 64;
+
+    /**
+     * A cache key: the Estate card and the Deduction history, compared by content.
+     */
+    private record Key(int estate, long[] history) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && key.estate == estate && Arrays.equals(key.history, history);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * estate + Arrays.hashCode(history);
+        }
+    }
+
+    private final RandomSource random;
+    private final Map<Key, List<Suggestion>> cache = Collections.synchronizedMap(
+            new LinkedHashMap<Key, List<Suggestion>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, List<Suggestion>> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    /**
+     * Constructor for the GuessAdvisor class.
+     *
+     * @param random the source of randomness for any Belief that has to sample
+     */
+    public GuessAdvisor(RandomSource random) {
+        this.random = random;
+    }
+
+    /**
+     * Ranks every guess the player could make in an Estate, best first, reusing a cached
+     * ranking if the player has seen nothing new since it was made.
+     *
+     * @param deduction the guessing player's Deduction, which is copied rather than kept
+     * @param estate the card id of the Estate the guess is made in
+     * @return the guesses, by decreasing expected information gain
+     */
+    public List<Suggestion> rank(Deduction deduction, int estate) {
+        Key key = new Key(estate, deduction.getHistory());
+        List<Suggestion> ranking = cache.get(key);
+        if (ranking == null) {
+            Belief belief = new Belief(new Deduction(deduction), random.split());
+            belief.refresh();
+            ranking = rank(belief, estate);
+            cache.put(key, ranking);
+        }
+        return ranking;
+    }
+
+    /**
+     * Ranks every guess the player whose Belief is given could make in an Estate, best first.
+     *
+     * @param belief the guessing player's Belief, already refreshed
+     * @param estate the card id of the Estate the guess is made in
+     * @return the guesses, by decreasing expected information gain
+     */
+    public static List<Suggestion> rank(Belief belief, int estate) {
+        Owners owners = new Owners(belief);
+        List<Callable<Suggestion>> candidates = new ArrayList<>();
+        for (int character = 0; character < GameState.CHARACTERS; character++) {
+            for (int weapon = GameState.CHARACTERS; weapon < GameState.CHARACTERS + GameState.WEAPONS; weapon++) {
+                int c = character;
+                int w = weapon;
+                candidates.add(() -> new Suggestion(c, w, owners.gain(c, w, estate)));
+            }
+        }
+        List<Suggestion> ranking = new ArrayList<>();
+        try {
+            for (Future<Suggestion> suggestion : ForkJoinPool.commonPool().invokeAll(candidates)) {
+                ranking.add(suggestion.get());
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Guess ranking failed", e);
+        }
+        ranking.sort(Comparator.comparingDouble(Suggestion::gain).reversed());
+        return Collections.unmodifiableList(ranking);
+    }
+
+    /**
+     * Who holds each card in each of a Belief's deals, with the solution counted as one more seat,
+     * and each deal's solution number and weight. How a guess is answered depends only on who
+     * holds its three cards, so this is all that scoring a guess needs.
+     */
+    private static final class Owners {
+        private final int seats;
+        private final int guesser;
+        private final int count;
+        private final byte[] owner;
+        private final int[] solution;
+        private final double[] weight;
+
+        Owners(Belief belief) {
+            seats = belief.getDeduction().getSeats();
+            guesser = belief.getDeduction().getSelf();
+            int deals = 0;
+            for (int deal = 0; deal < belief.getDealCount(); deal++) {
+                if (belief.getWeight(deal) != 0) {
+                    deals++;
+                }
+            }
+            count = deals;
+            owner = new byte[count * Card.COUNT];
+            solution = new int[count];
+            weight = new double[count];
+            int i = 0;
+            for (int deal = 0; deal < belief.getDealCount(); deal++) {
+                if (belief.getWeight(deal) == 0) {
+                    continue;
+                }
+                for (int seat = 0; seat <= seats; seat++) {
+                    long cards = seat < seats ? belief.getHand(deal, seat) : belief.getSolution(deal);
+                    for (; cards != 0; cards &= cards - 1) {
+                        owner[i * Card.COUNT + Long.numberOfTrailingZeros(cards)] = (byte) seat;
+                    }
+                }
+                solution[i] = Deduction.solutionOf(belief.getSolution(deal));
+                weight[i] = belief.getWeight(deal);
+                i++;
+            }
+        }
+
+        /**
+         * Works out the expected information gain of a guess: the entropy of the solution,
+         * less its expected entropy once the guesser sees who refutes and which card they show.
+         *
+         * @return the expected gain, in bits
+         */
+        double gain(int character, int weapon, int estate) {
+            // Total the weight of each solution for each way the guessed cards can be held
+            int holders = seats + 1;
+            double[] table = new double[holders * holders * holders * Deduction.SOLUTIONS];
+            double[] prior = new double[Deduction.SOLUTIONS];
+            for (int i = 0; i < count; i++) {
+                int base = i * Card.COUNT;
+                int held = (owner[base + character] * holders + owner[base + weapon]) * holders + owner[base + estate];
+                table[held * Deduction.SOLUTIONS + solution[i]] += weight[i];
+                prior[solution[i]] += weight[i];
+            }
+
+            // Spread each way of holding the cards over the answers it gives: nobody refuting,
+            // or the closest seat after the guesser holding any of them showing one at random
+            int[] holder = new int[3];
+            int answers = 1 + seats * 3;
+            double[] joint = new double[answers * Deduction.SOLUTIONS];
+            for (int held = 0; held < holders * holders * holders; held++) {
+                holder[0] = held / (holders * holders);
+                holder[1] = held / holders % holders;
+                holder[2] = held % holders;
+                int refuter = -1;
+                for (int i = 1; i < seats && refuter < 0; i++) {
+                    int seat = (guesser + i) % seats;
+                    if (holder[0] == seat || holder[1] == seat || holder[2] == seat) {
+                        refuter = seat;
+                    }
+                }
+                int shown = 0;
+                for (int card = 0; card < 3; card++) {
+                    if (holder[card] == refuter) {
+                        shown++;
+                    }
+                }
+                for (int s = 0; s < Deduction.SOLUTIONS; s++) {
+                    double w = table[held * Deduction.SOLUTIONS + s];
+                    if (w == 0) {
+                        continue;
+                    }
+                    if (refuter < 0) {
+                        joint[s] += w;
+                        continue;
+                    }
+                    for (int card = 0; card < 3; card++) {
+                        if (holder[card] == refuter) {
+                            joint[(1 + refuter * 3 + card) * Deduction.SOLUTIONS + s] += w / shown;
+                        }
+                    }
+                }
+            }
+
+            double total = 0;
+            double before = 0;
+            for (double p : prior) {
+                total += p;
+            }
+            for (double p : prior) {
+                if (p > 0) {
+                    before += p * Math.log(total / p);
+                }
+            }
+            double after = 0;
+            for (int answer = 0; answer < answers; answer++) {
+                double answerTotal = 0;
+                for (int s = 0; s < Deduction.SOLUTIONS; s++) {
+                    answerTotal += joint[answer * Deduction.SOLUTIONS + s];
+                }
+                for (int s = 0; s < Deduction.SOLUTIONS && answerTotal > 0; s++) {
+                    double p = joint[answer * Deduction.SOLUTIONS + s];
+                    if (p > 0) {
+                        after += p * Math.log(answerTotal / p);
+                    }
+                }
+            }
+            return total == 0 ? 0 : (before - after) / total / Math.log(2);
+        }
+    }
+}
@@ -3,6 +3,7 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import java.util.*;
 
 /**
@@ -36,11 +37,31 @@ public class Gui extends JFrame {
     /** Height of each game square. */
     public int squareHeight = 0;
 
+    /** The board view, created the first time the board is shown. */
+    private BoardPanel boardPanel;
+
+    /** The text view, created the first time the text is shown. */
+    private TextPanel textPanel;
+
+    /** The time between applying queued keyboard moves, in milliseconds; about one frame. */
+    private static final int MOVE_FRAME_MS = 16;
+
     /**
-     * Map that stores positions of game characters.
-     * The keys are character names, and the values are their positions.
+     * Steps queued from the arrow keys but not yet made, and the timer that makes them
+     * together once per frame.
      */
-    private Map<String, CPosition> people = new HashMap<>();
+    private final java.util.List<Game.Direction> queuedMoves = new ArrayList<>();
+    private final javax.swing.Timer moveTimer = new javax.swing.Timer(MOVE_FRAME_MS, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                applyQueuedMoves();
+            }
+        });
+
+    /** The label showing the moves remaining, while the movement menu is shown. */
+    private JLabel movesLabel;
+
+    /** Ranks the guesses the current player could make, for the hint in the guess menu. */
+    private final GuessAdvisor guessAdvisor = new GuessAdvisor(new SplittableRandomSource());
 
     // state logic
     private boolean textOrBoardPanel = true; // true for text panel, false for board panel
@@ -103,6 +124,8 @@ public class Gui extends JFrame {
         getContentPane().add(splitPane, BorderLayout.CENTER);
         getContentPane().add(sidebar, BorderLayout.EAST);
 
+        bindMovementKeys();
+
         pack();
         setSize(600, 600);
         setVisible(true);
@@ -190,6 +213,9 @@ public class Gui extends JFrame {
      */
     private void setPassTabletPreset() {
         currentState = State.PassTablet;
+        if (boardPanel != null) {
+            boardPanel.skipAnimation();
+        }
         setTripleWidgetPreset(tabletPassNextTurnWidget());
     }
 
@@ -344,11 +370,7 @@ public class Gui extends JFrame {
         // action listener for button
         OKButton.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    game.setDiceTotal(0);
-                    game.setDiceRolled(false);
-                    game.setGuessMade(false);
-                    game.setRefuteCount(0);
-                    game.clearUsedTiles();
+                    game.startTurn();
                     setPlayerTurnPreset();
                 }
             });
@@ -360,31 +382,39 @@ public class Gui extends JFrame {
     }
 
     /**
-     * Asks for the tablet to be passed to the refuter.
+     * Asks for the tablet to be passed to the refuter,
+     * or tells the guesser that nobody could refute their guess.
      *
      * @return A JPanel to prompt passing the tablet to the refuter.
      */
     private JPanel tabletPassRefuteWidget() {
-        game.incrementRefuteCount();
-        int guesserId = game.getPlayers().indexOf(game.getCurrentPlayer());
-        int refuterId = guesserId + game.getRefuteCount();
-        if (refuterId > game.getPlayerCount() - 1) {
-            refuterId -= game.getPlayerCount();
-        }
-        game.setRefuter(refuterId);
-        String name = game.getPlayers().get(refuterId).getName();
+        Game.Refutation refutation = game.getRefutation();
         JButton OKButton = new JButton("OK");
-        JLabel instructionLabel = new JLabel("Pass the tablet to " + name + " so they can refute");
+        JLabel instructionLabel;
 
         JPanel panel = new JPanel();
         panel.setLayout(new FlowLayout());
 
-        // action listener for button
-        OKButton.addActionListener(new ActionListener() {
-                public void actionPerformed(ActionEvent e) {
-                    setRefutePreset();
-                }
-            });
+        if (refutation.refuter() != null) {
+            game.setRefuter(game.getPlayers().indexOf(refutation.refuter()));
+            instructionLabel = new JLabel("Pass the tablet to " + refutation.refuter().getName() + " so they can refute");
+
+            // action listener for button
+            OKButton.addActionListener(new ActionListener() {
+                    public void actionPerformed(ActionEvent e) {
+                        setRefutePreset();
+                    }
+                });
+        } else {
+            instructionLabel = new JLabel("Nobody could refute your guess");
+
+            // action listener for button
+            OKButton.addActionListener(new ActionListener() {
+                    public void actionPerformed(ActionEvent e) {
+                        setPlayerTurnPreset();
+                    }
+                });
+        }
 
         panel.add(instructionLabel);
         panel.add(OKButton);
@@ -488,6 +518,7 @@ public class Gui extends JFrame {
      */
     private JPanel movementWidget() {
         JLabel instructionLabel = new JLabel(String.format("You have %d moves remaining", game.getDiceTotal()));
+        movesLabel = instructionLabel;
         JButton upButton = new JButton("Up");
         JButton rightButton = new JButton("Right");
         JButton downButton = new JButton("Down");
@@ -498,50 +529,10 @@ public class Gui extends JFrame {
         panel.setLayout(new FlowLayout());
 
         // action listeners for buttons
-        upButton.addActionListener(new ActionListener() {
-                public void actionPerformed(ActionEvent e) {
-                    if (game.getDiceTotal() > 0) {
-                        int i = game.moveInDirection(game.getCurrentPlayer().getCharacter(), Game.Direction.Up);
-                        game.decrementDiceTotal(i);
-                    } else {
-                        errorMessagePopup();
-                    }
-                    setMovementPreset();
-                }
-            });
-        rightButton.addActionListener(new ActionListener() {
-                public void actionPerformed(ActionEvent e) {
-                    if (game.getDiceTotal() > 0) {
-                        int i = game.moveInDirection(game.getCurrentPlayer().getCharacter(), Game.Direction.Right);
-                        game.decrementDiceTotal(i);
-                    } else {
-                        errorMessagePopup();
-                    }
-                    setMovementPreset();
-                }
-            });
-        downButton.addActionListener(new ActionListener() {
-                public void actionPerformed(ActionEvent e) {
-                    if (game.getDiceTotal() > 0) {
-                        int i = game.moveInDirection(game.getCurrentPlayer().getCharacter(), Game.Direction.Down);
-                        game.decrementDiceTotal(i);
-                    } else {
-                        errorMessagePopup();
-                    }
-                    setMovementPreset();
-                }
-            });
-        leftButton.addActionListener(new ActionListener() {
-                public void actionPerformed(ActionEvent e) {
-                    if (game.getDiceTotal() > 0) {
-                        int i = game.moveInDirection(game.getCurrentPlayer().getCharacter(), Game.Direction.Left);
-                        game.decrementDiceTotal(i);
-                    } else {
-                        errorMessagePopup();
-                    }
-                    setMovementPreset();
-                }
-            });
+        upButton.addActionListener(moveListener(Game.Direction.Up, instructionLabel));
+        rightButton.addActionListener(moveListener(Game.Direction.Right, instructionLabel));
+        downButton.addActionListener(moveListener(Game.Direction.Down, instructionLabel));
+        leftButton.addActionListener(moveListener(Game.Direction.Left, instructionLabel));
         returnButton.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     setPlayerTurnPreset();
@@ -558,6 +549,85 @@ public class Gui extends JFrame {
         return panel;
     }
 
+    /**
+     * Binds the arrow keys to movement, wherever the focus is in the window.
+     * Key presses, including the repeats of a held key, only queue steps;
+     * the steps are made together by the move timer.
+     */
+    private void bindMovementKeys() {
+        moveTimer.setRepeats(false);
+        InputMap inputs = getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        ActionMap actions = getRootPane().getActionMap();
+        Object[][] keys = {
+            {KeyEvent.VK_UP, Game.Direction.Up},
+            {KeyEvent.VK_RIGHT, Game.Direction.Right},
+            {KeyEvent.VK_DOWN, Game.Direction.Down},
+            {KeyEvent.VK_LEFT, Game.Direction.Left}
+        };
+        for (Object[] key : keys) {
+            Game.Direction direction = (Game.Direction) key[1];
+            inputs.put(KeyStroke.getKeyStroke((Integer) key[0], 0), "move" + direction);
+            actions.put("move" + direction, new AbstractAction() {
+                    public void actionPerformed(ActionEvent e) {
+                        queueMove(direction);
+                    }
+                });
+        }
+    }
+
+    /**
+     * Queues a step, as long as the player is moving and has moves left for it.
+     *
+     * @param direction The direction of the step.
+     */
+    private void queueMove(Game.Direction direction) {
+        if (currentState != State.Movement || queuedMoves.size() >= game.getDiceTotal()) {
+            return;
+        }
+        queuedMoves.add(direction);
+        if (!moveTimer.isRunning()) {
+            moveTimer.start();
+        }
+    }
+
+    /**
+     * Makes every queued step in one batch, then updates the moves remaining once.
+     */
+    private void applyQueuedMoves() {
+        if (currentState == State.Movement && !queuedMoves.isEmpty()) {
+            game.applyMoves(game.getCurrentPlayer().getCharacter(), queuedMoves);
+            if (movesLabel != null) {
+                movesLabel.setText(String.format("You have %d moves remaining", game.getDiceTotal()));
+            }
+            updateReachableOverlay();
+        }
+        queuedMoves.clear();
+    }
+
+    /**
+     * Creates the action listener for a movement button.
+     * Only the remaining moves label is updated; the board view repaints the tiles
+     * that changed when the Board tells it about them.
+     *
+     * @param direction The direction to move in.
+     * @param instructionLabel The label showing the remaining moves.
+     * @return The action listener.
+     */
+    private ActionListener moveListener(Game.Direction direction, JLabel instructionLabel) {
+        return new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    if (game.getDiceTotal() > 0) {
+                        int i = game.moveInDirection(game.getCurrentPlayer().getCharacter(), direction);
+                        game.decrementDiceTotal(i);
+                    } else {
+                        errorMessagePopup();
+                    }
+                    instructionLabel.setText(String.format("You have %d moves remaining", game.getDiceTotal()));
+                    updateReachableOverlay();
+                }
+            };
+    }
+
     /**
      * Player can make a guess using dropboxes of the characters and weapons.
      * The estate is predetermined by the player's current estate.
@@ -575,12 +645,19 @@ public class Gui extends JFrame {
         JComboBox<String> weaponBox = new JComboBox<>(weaponArray);
         JButton guessButton = new JButton("Guess");
         JButton solveButton = new JButton("Solve");
+        JButton suggestButton = new JButton("Suggest");
+        JLabel suggestionLabel = new JLabel();
         JButton returnButton = new JButton("Go back");
 
         JPanel panel = new JPanel();
         panel.setLayout(new FlowLayout());
 
         // action listeners for buttons
+        suggestButton.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    suggestGuess(characterBox, weaponBox, suggestionLabel);
+                }
+            });
         guessButton.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     game.guess((String) characterBox.getSelectedItem(), (String) weaponBox.getSelectedItem(), false);
@@ -621,38 +698,84 @@ public class Gui extends JFrame {
         panel.add(weaponBox);
         panel.add(guessButton);
         panel.add(solveButton);
+        panel.add(suggestButton);
         panel.add(returnButton);
+        panel.add(suggestionLabel);
 
         return panel;
     }
 
     /**
-     * Creates a full board by creating a board object and then adding cells.
+     * Works out which guess should tell the current player the most, off the event thread,
+     * then selects it in the drop boxes and says how much it is expected to tell them.
      *
-     * @return A JPanel representing the game board.
+     * @param characterBox The drop box of characters.
+     * @param weaponBox The drop box of weapons.
+     * @param suggestionLabel The label to show the suggestion in.
      */
-    private JPanel boardWidget() {
-        BoardPanel board = new BoardPanel();
-        board.setLayout(new GridLayout(24, 24, 0, 0));
-        for (int row = 0; row < 24; row++) {
-            for (int col = 0; col < 24; col++) {
-                Tile tile = game.getBoard().getTile(row, col);
-
-                if (tile instanceof WallTile) {
-                    board.add(board.wallTile());
-                } else if (tile instanceof GameTile) {
-                    String displayIcon = ((GameTile) tile).getStored().getDisplayIcon();
-                    board.add(board.gameTile(row, col, displayIcon));
-                } else {
-                    board.add(board.entranceTile());
+    private void suggestGuess(JComboBox<String> characterBox, JComboBox<String> weaponBox, JLabel suggestionLabel) {
+        Deduction deduction = new Deduction(game.getCurrentPlayer().getWorksheet().getDeduction());
+        int estate = game.getCard(game.getCurrentPlayer().getCharacter().getEstate().getName()).getId();
+        suggestionLabel.setText("Thinking...");
+        new SwingWorker<GuessAdvisor.Suggestion, Void>() {
+            protected GuessAdvisor.Suggestion doInBackground() {
+                return guessAdvisor.rank(deduction, estate).get(0);
+            }
+
+            protected void done() {
+                try {
+                    GuessAdvisor.Suggestion best = get();
+                    String character = game.getCard(best.character()).getName();
+                    String weapon = game.getCard(best.weapon()).getName();
+                    characterBox.setSelectedItem(character);
+                    weaponBox.setSelectedItem(weapon);
+                    suggestionLabel.setText(String.format("Suggested: %s with %s (%.2f bits)", character, weapon, best.gain()));
+                } catch (Exception e) {
+                    suggestionLabel.setText("No suggestion");
                 }
             }
+        }.execute();
+    }
+
+    /**
+     * Highlights where the current player can move to while they are moving,
+     * and clears the highlight otherwise.
+     */
+    private void updateReachableOverlay() {
+        if (boardPanel == null) {
+            return;
+        }
+        if (currentState == State.Movement) {
+            boardPanel.overlay.update(game.getBoard(), game.getCurrentPlayer().getCharacter(), game.getDiceTotal());
+        } else {
+            boardPanel.overlay.clear();
         }
-        return board;
+    }
+
+    /**
+     * Gets the board view, sized to the current square size.
+     * The same BoardPanel is reused for every state change and resize,
+     * as it paints straight from the Board whenever it is repainted.
+     *
+     * @return A JPanel representing the game board.
+     */
+    private JPanel boardWidget() {
+        if (boardPanel == null) {
+            boardPanel = new BoardPanel();
+            game.getBoard().addChangeListener(boardPanel::boardChanged);
+        }
+        boardPanel.endPreview();
+        updateReachableOverlay();
+        boardPanel.setPreferredSize(new Dimension(squareWidth * 24, squareHeight * 24));
+        boardPanel.revalidate();
+        boardPanel.repaint();
+        return boardPanel;
     }
 
     /**
      * JPanel class for displaying the game board.
+     * Paints every Tile in a single pass rather than holding a component per Tile:
+     * a cached image of the fixed layout, then the items and trail on top.
      *
      * @author Finley Neilson
      * @author William Huang
@@ -665,150 +788,312 @@ public class Gui extends JFrame {
         private final Color tileBorderColor = Color.BLACK;
         private final Color gameTileColor = Color.GRAY;
         private final Color itemLetterColor = Color.CYAN;
+        private final Font itemLetterFont = new Font("Arial", Font.BOLD, 20);
 
         /**
-         * Create a JPanel for a wall tile.
-         *
-         * @return The JPanel representing a wall tile.
+         * The walls, grey areas and entrances, which never change once the Board is built,
+         * rendered at the size of squares they were drawn for.
+         */
+        private BufferedImage staticLayer;
+
+        /**
+         * The item letters, pre-rendered at the size of squares they were drawn for.
+         */
+        private GlyphAtlas glyphs;
+
+        /**
+         * Slides item letters between tiles as they move.
+         */
+        private final BoardAnimator animator = new BoardAnimator(game.getBoard(), this::repaintSquares);
+
+        /**
+         * Works out the places to highlight off the event dispatch thread, and the latest result.
+         */
+        private final ReachableOverlay overlay = new ReachableOverlay(game.getBoard(), this::reachableChanged);
+        private long[] reachable;
+        private final Color reachableColor = new Color(255, 255, 0, 90);
+
+        /**
+         * The item the mouse was last over, so its info is only shown once per visit.
+         */
+        private Item hoveredItem = Item.EMPTY;
+
+        /**
+         * Constructor for the BoardPanel class.
          */
-        public JPanel wallTile() {
-            JPanel panel = new JPanel() {
+        public BoardPanel() {
+            addMouseMotionListener(new MouseMotionAdapter() {
                     @Override
-                    protected void paintComponent(Graphics g) {
-                        super.paintComponent(g);
-                        g.setColor(wallTileColor);
-                        g.fillRect(0, 0, squareWidth, squareHeight);
+                    public void mouseMoved(MouseEvent e) {
+                        Item item = itemAt(e.getX(), e.getY());
+                        if (item != hoveredItem) {
+                            hoveredItem = item;
+                            if (item != Item.EMPTY && !textOrBoardPanel) {
+                                showItemInfo(item);
+                            }
+                        }
                     }
-                };
 
-            panel.setBorder(BorderFactory.createLineBorder(tileBorderColor));
-            panel.setPreferredSize(new Dimension(squareWidth, squareHeight));
-            return panel;
+                    @Override
+                    public void mouseDragged(MouseEvent e) {
+                        mouseMoved(e);
+                    }
+                });
         }
 
         /**
-         * Create a JPanel for a game tile with an item letter.
+         * Finds the item under a point on the board, using the Board's item index.
          *
-         * @param row    The row index of the tile.
-         * @param col    The column index of the tile.
-         * @param letter The letter to display on the game tile.
-         * @return The JPanel representing a game tile with an item letter.
+         * @param x The x-coordinate, relative to this panel.
+         * @param y The y-coordinate, relative to this panel.
+         * @return The item drawn on the square at that point, or Item.EMPTY.
          */
-        public JPanel gameTile(int row, int col, String letter) {
-            JPanel panel = new JPanel() {
-                    @Override
-                    protected void paintComponent(Graphics g) {
-
-                        super.paintComponent(g);
-                        g.setColor(gameTileColor);
-                        g.fillRect(0, 0, squareWidth, squareHeight);
+        public Item itemAt(int x, int y) {
+            int width = previewWidth > 0 ? previewWidth : squareWidth;
+            int height = previewHeight > 0 ? previewHeight : squareHeight;
+            if (width <= 0 || height <= 0 || x < 0 || y < 0 || x >= width * 24 || y >= height * 24) {
+                return Item.EMPTY;
+            }
+            return game.getBoard().getItem(y / height * 24 + x / width);
+        }
 
-                        if (!letter.isEmpty()) {
+        /**
+         * The square size the board is being stretched to while the window is being resized,
+         * or 0 when it is drawn at its own square size.
+         */
+        private int previewWidth = 0;
+        private int previewHeight = 0;
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (squareWidth <= 0 || squareHeight <= 0) {
+                return;
+            }
+            Graphics2D g2 = (Graphics2D) g.create();
+            if (previewWidth > 0 && previewHeight > 0) {
+                g2.scale((double) previewWidth / squareWidth, (double) previewHeight / squareHeight);
+            }
+            paintBoard(g2);
+            g2.dispose();
+        }
 
-                            // Set a distinct color for the letter
-                            g.setColor(itemLetterColor);
+        /**
+         * Stretches the board as it was last drawn to a new square size, without re-rendering it.
+         * Used while the window is being resized; the next full rebuild draws it properly.
+         *
+         * @param width  The new square width.
+         * @param height The new square height.
+         */
+        public void previewSquareSize(int width, int height) {
+            previewWidth = width;
+            previewHeight = height;
+            setPreferredSize(new Dimension(width * 24, height * 24));
+            revalidate();
+            repaint();
+        }
 
-                            // Drawing the letter
-                            g.setFont(new Font("Arial", Font.BOLD, 20));
-                            FontMetrics fm = g.getFontMetrics();
-                            int x = (squareWidth - fm.charWidth(letter.charAt(0))) / 2;  // Use charAt(0) to get the first character from the string
-                            int y = (squareHeight + fm.getAscent() - fm.getDescent()) / 2;
+        /**
+         * Stops stretching the board, so that it is drawn at the current square size.
+         */
+        public void endPreview() {
+            previewWidth = 0;
+            previewHeight = 0;
+        }
 
-                            people.put(letter,new CPosition(x+(col*squareWidth),y+(row*squareHeight)));
+        /**
+         * Paints the static layer and then the items and trail, at the current square size.
+         *
+         * @param g The graphics to paint with.
+         */
+        private void paintBoard(Graphics g) {
+            if (staticLayer == null || staticLayer.getWidth() != squareWidth * 24 || staticLayer.getHeight() != squareHeight * 24) {
+                staticLayer = renderStaticLayer();
+            }
+            g.drawImage(staticLayer, 0, 0, null);
+            if (reachable != null) {
+                paintReachable(g);
+            }
+            if (glyphs == null || !glyphs.fits(squareWidth, squareHeight)) {
+                glyphs = new GlyphAtlas(itemLetterFont, itemLetterColor, squareWidth, squareHeight);
+            }
 
-                            g.drawString(letter, x, y);
+            // Only occupied and walked tiles have anything to draw on top
+            Board board = game.getBoard();
+            Rectangle clip = g.getClipBounds();
+            for (int row = 0; row < 24; row++) {
+                for (int col = 0; col < 24; col++) {
+                    if (!board.isOccupied(row, col) && !board.isTrail(row, col)) {
+                        continue;
+                    }
+                    if (clip != null && !clip.intersects(col * squareWidth, row * squareHeight, squareWidth, squareHeight)) {
+                        continue;
+                    }
+                    Tile tile = board.getTile(row, col);
+                    if (tile instanceof GameTile && !animator.isMoving(board.getItem(row * 24 + col))) {
+                        String letter = ((GameTile) tile).getStored().getDisplayIcon();
+                        if (!letter.isEmpty() && !glyphs.draw(g, letter, col * squareWidth, row * squareHeight)) {
+                            drawLetter(g, letter, row, col);
                         }
+                    }
+                }
+            }
+            animator.paint(g, glyphs, squareWidth, squareHeight);
+        }
 
+        /**
+         * Starts the moved items gliding and repaints only the tiles that changed.
+         *
+         * @param tiles   A bitboard of the changed tiles.
+         * @param estates A mask of the changed Estates, whose tiles are already among the changed tiles.
+         */
+        public void boardChanged(long[] tiles, int estates) {
+            animator.tilesChanged(tiles);
+            for (int word = 0; word < tiles.length; word++) {
+                long bits = tiles[word];
+                while (bits != 0) {
+                    int index = word * 64 + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    repaintSquares(index % 24, index / 24, 1, 1);
+                }
+            }
+        }
+
+        /**
+         * Repaints an area of the board given in squares, allowing for a resize being previewed.
+         *
+         * @param col  The left edge, in squares.
+         * @param row  The top edge, in squares.
+         * @param cols The width, in squares.
+         * @param rows The height, in squares.
+         */
+        public void repaintSquares(double col, double row, double cols, double rows) {
+            int width = previewWidth > 0 ? previewWidth : squareWidth;
+            int height = previewHeight > 0 ? previewHeight : squareHeight;
+            int left = (int) Math.floor(col * width);
+            int top = (int) Math.floor(row * height);
+            repaint(left, top, (int) Math.ceil((col + cols) * width) - left + 1, (int) Math.ceil((row + rows) * height) - top + 1);
+        }
+
+        /**
+         * Shows a new set of reachable places.
+         *
+         * @param result The result of the search, or null to clear the highlight.
+         */
+        public void reachableChanged(long[] result) {
+            if (result != reachable) {
+                reachable = result;
+                repaint();
+            }
+        }
+
+        /**
+         * Tints every reachable tile, and the entrances of every reachable Estate.
+         *
+         * @param g The graphics to paint with.
+         */
+        private void paintReachable(Graphics g) {
+            g.setColor(reachableColor);
+            for (int index = 0; index < Reachability.TILES; index++) {
+                if (Reachability.containsTile(reachable, index / 24, index % 24)) {
+                    g.fillRect((index % 24) * squareWidth, (index / 24) * squareHeight, squareWidth, squareHeight);
+                }
+            }
+            java.util.List<Estate> estates = game.getBoard().getEstates();
+            for (int e = 0; e < estates.size(); e++) {
+                if (Reachability.containsEstate(reachable, e)) {
+                    for (EntranceTile entrance : estates.get(e).getEntranceTiles()) {
+                        g.fillRect(entrance.xCoord * squareWidth, entrance.yCoord * squareHeight, squareWidth, squareHeight);
                     }
-                };
-            panel.setBorder(BorderFactory.createLineBorder(tileBorderColor));
-            panel.setPreferredSize(new Dimension(squareWidth, squareHeight));
-            return panel;
+                }
+            }
         }
 
         /**
-         * Create a JPanel for an entrance tile.
+         * Draws every gliding item on its tile straight away.
+         */
+        public void skipAnimation() {
+            animator.skip();
+        }
+
+        /**
+         * Renders every Tile's background and outline into an image at the current square size.
          *
-         * @return The JPanel representing an entrance tile.
+         * @return The rendered static layer.
          */
-        public JPanel entranceTile() {
-            JPanel panel = new JPanel() {
-                    @Override
-                    protected void paintComponent(Graphics g) {
-                        super.paintComponent(g);
+        private BufferedImage renderStaticLayer() {
+            BufferedImage image = new BufferedImage(squareWidth * 24, squareHeight * 24, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            Board board = game.getBoard();
+            for (int row = 0; row < 24; row++) {
+                for (int col = 0; col < 24; col++) {
+                    int left = col * squareWidth;
+                    int top = row * squareHeight;
+                    if (board.isWall(row, col)) {
+                        g.setColor(wallTileColor);
+                    } else if (board.isEntrance(row, col)) {
                         g.setColor(enteranceTileColor);
-                        g.fillRect(0, 0, squareWidth, squareHeight);
+                    } else {
+                        g.setColor(gameTileColor);
                     }
-                };
-
-            panel.setBorder(BorderFactory.createLineBorder(tileBorderColor));
-            panel.setPreferredSize(new Dimension(squareWidth, squareHeight));
-            return panel;
+                    g.fillRect(left, top, squareWidth, squareHeight);
+                    g.setColor(tileBorderColor);
+                    g.drawRect(left, top, squareWidth - 1, squareHeight - 1);
+                }
+            }
+            g.dispose();
+            return image;
         }
 
-    }
+        /**
+         * Draws an item letter centred on a game tile, for letters missing from the glyph atlas.
+         *
+         * @param g      The graphics to draw with.
+         * @param letter The letter to display on the game tile.
+         * @param row    The row index of the tile.
+         * @param col    The column index of the tile.
+         */
+        private void drawLetter(Graphics g, String letter, int row, int col) {
+            // Set a distinct color for the letter
+            g.setColor(itemLetterColor);
+            g.setFont(itemLetterFont);
+            FontMetrics fm = g.getFontMetrics();
 
+            int x = (squareWidth - fm.charWidth(letter.charAt(0))) / 2;  // Use charAt(0) to get the first character from the string
+            int y = (squareHeight + fm.getAscent() - fm.getDescent()) / 2;
+
+            g.drawString(letter, x + col * squareWidth, y + row * squareHeight);
+        }
+    }
 
-    /**
-     * Represents a position on the board.
-     *
-     * @param x The x-coordinate of the position.
-     * @param y The y-coordinate of the position.
-     */
-    public record CPosition(int x, int y) {}
 
     /**
-     * Creates a JPanel for the refute widget, allowing players to select a refutable card if possible.
+     * Creates a JPanel for the refute widget, allowing the refuter to select which of their refutable cards to show.
      *
      * @return A JPanel for the refute widget.
      */
     private JPanel refuteWidget() {
         int refuter = game.getRefuter();
         java.util.List<String> cards = game.getRefuteableCards(game.getPlayers().get(refuter));
-        String[] cardArray = new String[cards.size()];
-        for (int i = 0; i < cards.size(); i++) {
-            cardArray[i] = cards.get(i);
-        }
+        String[] cardArray = cards.toArray(new String[0]);
 
         JPanel panel = new JPanel();
         panel.setLayout(new FlowLayout());
 
-        if (!cards.isEmpty()) {
-            JLabel refuteLabel = new JLabel("Refute using this card: ");
-            JComboBox<String> cardBox = new JComboBox<>(cardArray);
-            JButton OKButton = new JButton("OK");
-
-            OKButton.addActionListener(new ActionListener() {
-                    public void actionPerformed(ActionEvent e) {
-                        for (Card c : game.getCards()) {
-                            if (c.getName().equals((String) cardBox.getSelectedItem())) {
-                                game.getCurrentPlayer().getWorksheet().addShownCard(c);
-                            }
-                        }
-                        setPlayerTurnPreset();
-                    }
-                });
-
-            panel.add(refuteLabel);
-            panel.add(cardBox);
-            panel.add(OKButton);
-        } else {
-            JLabel refuteLabel = new JLabel("You have no cards to refute with");
-            JButton OKButton = new JButton("OK");
+        JLabel refuteLabel = new JLabel("Refute using this card: ");
+        JComboBox<String> cardBox = new JComboBox<>(cardArray);
+        JButton OKButton = new JButton("OK");
 
-            OKButton.addActionListener(new ActionListener() {
-                    public void actionPerformed(ActionEvent e) {
-                        if (game.getRefuteCount() < game.getPlayerCount() - 1) {
-                            setPassTabletRefutePreset();
-                        } else {
-                            setPlayerTurnPreset();
-                        }
-                    }
-                });
+        OKButton.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    game.refute((String) cardBox.getSelectedItem());
+                    setPlayerTurnPreset();
+                }
+            });
 
-            panel.add(refuteLabel);
-            panel.add(OKButton);
-        }
+        panel.add(refuteLabel);
+        panel.add(cardBox);
+        panel.add(OKButton);
         return panel;
     }
 
@@ -828,13 +1113,16 @@ public class Gui extends JFrame {
     }
 
     /**
-     * Creates a JPanel for displaying text information.
+     * Gets the text view, showing the current player's worksheet.
+     * The same TextPanel is reused, and only updated where the worksheet has changed.
      *
      * @return A TextPanel for displaying text information.
      */
     public TextPanel textWidget() {
-        TextPanel textPanel = new TextPanel();
-        textPanel.addText(game.getCurrentPlayer().getWorksheet().toString());
+        if (textPanel == null) {
+            textPanel = new TextPanel();
+        }
+        textPanel.showWorksheet(game.getCurrentPlayer().getWorksheet());
         return textPanel;
     }
 
@@ -846,6 +1134,13 @@ public class Gui extends JFrame {
     public class TextPanel extends JPanel {
         private JTextArea displayTextArea;
 
+        /**
+         * The worksheet on display, and how many of its cards and shown cards the text lists.
+         */
+        private Worksheet worksheet;
+        private int cardCount;
+        private int shownCount;
+
         /**
          * Constructor for the TextPanel class.
          */
@@ -880,7 +1175,93 @@ public class Gui extends JFrame {
          */
         public void clearText() {
             displayTextArea.setText("");
+            worksheet = null;
         }
+
+        /**
+         * Displays a worksheet. If it is the worksheet already on display, and it has only been
+         * shown new cards since, their lines are inserted rather than replacing the whole text.
+         *
+         * @param sheet The worksheet to display.
+         */
+        public void showWorksheet(Worksheet sheet) {
+            int cards = sheet.getCards().size();
+            int shown = sheet.getShownCards().size();
+            if (sheet == worksheet && cards == cardCount && shown == shownCount) {
+                return;
+            }
+            if (sheet != worksheet || cards != cardCount || shown < shownCount || !insertShownCards(sheet)) {
+                displayTextArea.setText(sheet.toString() + "\n");
+            }
+            worksheet = sheet;
+            cardCount = cards;
+            shownCount = shown;
+        }
+
+        /**
+         * Inserts the lines for the cards shown since the worksheet was last displayed,
+         * just above its footer, replacing the line saying no cards have been shown.
+         *
+         * @param sheet The worksheet on display.
+         * @return false if the text did not have the expected layout, and was left alone.
+         */
+        private boolean insertShownCards(Worksheet sheet) {
+            javax.swing.text.Document document = displayTextArea.getDocument();
+            int footer = document.getLength() - Worksheet.FOOTER.length() - 1;
+            StringBuilder lines = new StringBuilder();
+            for (Card c : sheet.getShownCards().subList(shownCount, sheet.getShownCards().size())) {
+                lines.append(Worksheet.cardLine(c));
+            }
+            try {
+                if (!document.getText(footer, Worksheet.FOOTER.length()).equals(Worksheet.FOOTER)) {
+                    return false;
+                }
+                if (shownCount == 0) {
+                    footer -= Worksheet.NO_SHOWN_CARDS.length();
+                    if (footer < 0 || !document.getText(footer, Worksheet.NO_SHOWN_CARDS.length()).equals(Worksheet.NO_SHOWN_CARDS)) {
+                        return false;
+                    }
+                    document.remove(footer, Worksheet.NO_SHOWN_CARDS.length());
+                }
+                document.insertString(footer, lines.toString(), null);
+                return true;
+            } catch (javax.swing.text.BadLocationException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Shows a dialog with the full name of an item on the board.
+     *
+     * @param item The item hovered over.
+     */
+    private void showItemInfo(Item item) {
+        JFrame frame = new JFrame();
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+        JDialog dialog = new JDialog(frame, "Item Info", true);
+
+        JLabel label = new JLabel(item.getName());
+
+        label.setHorizontalAlignment(JLabel.CENTER);
+
+        JButton exitButton = new JButton("Exit");
+        exitButton.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    dialog.dispose();
+                    frame.dispose();
+                }
+            });
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(label, BorderLayout.CENTER);
+        panel.add(exitButton, BorderLayout.SOUTH);
+
+        dialog.getContentPane().add(panel);
+        dialog.pack();
+        dialog.setLocationRelativeTo(frame);
+        dialog.setVisible(true);
     }
 
     /**
@@ -906,61 +1287,6 @@ public class Gui extends JFrame {
          */
         public MidPanel() {
             addComponentListener(new ResizeListener());
-
-            addMouseMotionListener(new MouseMotionAdapter() {
-                    @Override
-                    public void mouseMoved(MouseEvent e) {
-                      
-                        int mouseX = e.getX();
-                        int mouseY = e.getY();
-
-                        for (Map.Entry<String, CPosition> entry : people.entrySet()) {
-                            CPosition position = entry.getValue();
-                            int Cx =  position.x();
-                            int Cy =  position.y();
-
-                            // System.out.println(entry.getKey()+" is at " +position.x() +" "+position.y());
-
-                            double ac = Math.abs(Cy - mouseY);
-                            double cb = Math.abs(Cx - mouseX);
-
-                            double distance = Math.hypot(ac, cb);
-
-                            if((distance<20) && (!textOrBoardPanel)){
-
-                                JFrame frame = new JFrame();
-                                frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-
-                                JDialog dialog = new JDialog(frame, "Item Info", true);
-
-                                String shortenedName = entry.getKey();
-                                
-                                JLabel label = new JLabel(game.findFullName(shortenedName));
-                                
-                                label.setHorizontalAlignment(JLabel.CENTER);
-
-                                JButton exitButton = new JButton("Exit");
-                                exitButton.addActionListener(new ActionListener() {
-                                        @Override
-                                        public void actionPerformed(ActionEvent e) {
-                                            dialog.dispose();
-                                            frame.dispose();
-                                        }
-                                    });
-                                JPanel panel = new JPanel(new BorderLayout());
-                                panel.add(label, BorderLayout.CENTER);
-                                panel.add(exitButton, BorderLayout.SOUTH);
-
-                                dialog.getContentPane().add(panel);
-                                dialog.pack();
-                                dialog.setLocationRelativeTo(frame);
-                                dialog.setVisible(true);
-
-                            }
-                        }
-
-                    }
-                });
         }
 
         public int width(){
@@ -974,13 +1300,31 @@ public class Gui extends JFrame {
         /**
          * Local class to MidPanel that handles resizing of the board in response
          * to the GUI being resized.
+         * A burst of resize events, as when dragging the window edge, only stretches the board
+         * already drawn; the GUI is rebuilt once, when no resize has happened for RESIZE_SETTLE_MS.
          * 
          * @author James Goode
          */
         private class ResizeListener implements ComponentListener {
+            private static final int RESIZE_SETTLE_MS = 150;
+
+            private final javax.swing.Timer settleTimer = new javax.swing.Timer(RESIZE_SETTLE_MS, new ActionListener() {
+                    public void actionPerformed(ActionEvent e) {
+                        triggerStateOnce(currentState);
+                    }
+                });
+
+            ResizeListener() {
+                settleTimer.setRepeats(false);
+            }
+
             @Override
             public void componentResized(ComponentEvent e) {
-                triggerStateOnce(currentState);
+                if (!textOrBoardPanel && boardPanel != null && boardPanel.getParent() == MidPanel.this
+                        && getWidth() >= 24 && getHeight() >= 24) {
+                    boardPanel.previewSquareSize(getWidth() / 24, getHeight() / 24);
+                }
+                settleTimer.restart();
             }
 
             @Override
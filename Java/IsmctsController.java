@@ -0,0 +1,591 @@
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A computer controller that searches for its decisions with information-set Monte Carlo tree search.
+ *
+ * Each decision is the root of a search over the actions available: which Estate to head for
+ * this turn, or which Character and Weapon to guess or solve with in the current Estate.
+ * Every iteration determinises the hidden information, drawing a deal of the solution and the
+ * other hands from the player's Belief, so that it agrees with everything its Deduction has
+ * seen, then picks an action by UCB1, plays it in a GameState and plays the game out with
+ * Playout. The action visited most often is chosen.
+ *
+ * Searches run until a per-decision time budget is spent, of which bringing the Belief up to date
+ * may take a quarter; if it cannot finish in time, the deals from the last decision are reused.
+ * With more than one thread,
+ * independent searches run on the common ForkJoinPool, each with its own RandomSource split
+ * off this controller's, and their statistics are summed before choosing (root parallelisation).
+ */
+public class IsmctsController implements PlayerController {
+    /**
+     * The turn limit of a playout, after which nobody is counted as winning.
+     */
+    private static final int MAX_PLAYOUT_TURNS = 200;
+
+    /**
+     * The UCB1 exploration constant.
+     */
+    private static final double EXPLORATION = 0.7;
+
+    /**
+     * The share of the budget that refreshing the Belief may take, as a divisor.
+     */
+    private static final int REFRESH_SHARE = 4;
+
+    /**
+     * Guess actions are numbered character * WEAPONS + weapon, solve actions follow them,
+     * and the last action declines to guess.
+     */
+    private static final int PAIRS = GameState.CHARACTERS * GameState.WEAPONS;
+    private static final int SOLVE = PAIRS;
+    private static final int SKIP = 2 * PAIRS;
+
+    private final RandomSource random;
+    private final long budgetNanos;
+    private final int threads;
+
+    /**
+     * The Estate chosen to head for this turn, or -1 when a new one must be chosen,
+     * and the moves that were left when it was last consulted.
+     */
+    private int target = -1;
+    private int lastDice = 0;
+
+    /**
+     * The weighted deals consistent with what the player has seen, kept between decisions
+     * so that only new events need to be weighed.
+     */
+    private Belief belief;
+
+    /**
+     * The Belief's deals as last gathered for the searches, and the number of events of
+     * the Deduction they account for.
+     */
+    private Deals deals = new Deals(0, 0, new int[0], new double[0]);
+    private int dealsEvents = -1;
+
+    /**
+     * The decisions made and the time spent on them, for reporting.
+     */
+    private long decisions = 0;
+    private long searchNanos = 0;
+    private long worstNanos = 0;
+
+    /**
+     * Constructor for the IsmctsController class.
+     *
+     * @param random the source of randomness for this controller's searches
+     * @param budgetMillis the time each decision may take
+     * @param threads the number of searches to run in parallel
+     */
+    public IsmctsController(RandomSource random, long budgetMillis, int threads) {
+        this.random = random;
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.threads = Math.max(1, threads);
+    }
+
+    @Override
+    public Game.Direction chooseMove(Game game, Player player) {
+        int dice = game.getDiceTotal();
+        if (target < 0 || dice > lastDice) {
+            target = searchTarget(game, player);
+        }
+        lastDice = dice;
+
+        Board board = game.getBoard();
+        Character character = player.getCharacter();
+        Estate current = character.getEstate();
+        if (target < 0 || current == board.getEstates().get(target)) {
+            target = -1;
+            return null;
+        }
+
+        // Step along the shortest path to the target, leaving through the best exit if inside an Estate
+        DistanceTable distances = DistanceTable.get();
+        Game.Direction best = null;
+        int bestDistance = DistanceTable.UNREACHABLE;
+        for (Game.Direction direction : Game.Direction.values()) {
+            int y = character.getY();
+            int x = character.getX();
+            if (current != null) {
+                EntranceTile exit = current.getEntranceTiles().get(direction.ordinal());
+                y = exit.getExitY();
+                x = exit.getExitX();
+            } else {
+                switch (direction) {
+                    case Up -> y--;
+                    case Down -> y++;
+                    case Left -> x--;
+                    case Right -> x++;
+                }
+            }
+            if (board.isSafeMove(y, x) && distances.distance(target, y, x) < bestDistance) {
+                best = direction;
+                bestDistance = distances.distance(target, y, x);
+            }
+        }
+        return best != null ? best : Game.Direction.values()[random.nextInt(4)];
+    }
+
+    @Override
+    public Guess chooseGuess(Game game, Player player) {
+        target = -1;
+        GameState root = observe(game, player);
+        int seat = game.getPlayers().indexOf(player);
+        int estate = GameState.estateOf(root.getPosition(root.getSeatCharacter(seat)));
+        int unknown = GameState.ALL_CARDS & ~root.getKnown(seat);
+
+        // Guessing two cards already seen can teach nothing, so those guesses are left out
+        List<Integer> actions = new ArrayList<>();
+        for (int pair = 0; pair < PAIRS; pair++) {
+            if ((unknown & pairMask(pair)) != 0) {
+                actions.add(pair);
+            }
+        }
+        // Solving is only worth considering with cards that could be the solution
+        if ((unknown & (1 << GameState.estateCard(estate))) != 0) {
+            for (int pair = 0; pair < PAIRS; pair++) {
+                if ((unknown & pairMask(pair)) == pairMask(pair)) {
+                    actions.add(SOLVE + pair);
+                }
+            }
+        }
+        if (!game.getDiceRolled() || actions.isEmpty()) {
+            actions.add(SKIP);
+        }
+
+        int action = search(game, player, root, actions, false);
+        if (action == SKIP) {
+            return null;
+        }
+        int pair = action % PAIRS;
+        return new Guess(game.getCard(pair / GameState.WEAPONS).getName(),
+                game.getCard(GameState.CHARACTERS + pair % GameState.WEAPONS).getName(), action >= SOLVE);
+    }
+
+    @Override
+    public String chooseRefute(Game game, Player refuter, List<String> refuteableCards) {
+        return refuteableCards.get(random.nextInt(refuteableCards.size()));
+    }
+
+    /**
+     * Captures what the player can see of the game, counting every card its deduction engine
+     * has ruled out of the solution as known.
+     */
+    private GameState observe(Game game, Player player) {
+        GameState root = GameState.observe(game, player);
+        int seat = game.getPlayers().indexOf(player);
+        Deduction deduction = player.getWorksheet().getDeduction();
+        if (deduction != null) {
+            root.setKnown(seat, root.getKnown(seat) | (int) deduction.getNotSolutionMask());
+        }
+        return root;
+    }
+
+    /**
+     * Searches for the Estate to head for this turn.
+     *
+     * @return the Estate index, or -1 if there is nowhere worth going
+     */
+    private int searchTarget(Game game, Player player) {
+        GameState root = observe(game, player);
+        int seat = game.getPlayers().indexOf(player);
+        int current = GameState.estateOf(root.getPosition(root.getSeatCharacter(seat)));
+        List<Integer> actions = new ArrayList<>();
+        for (int e = 0; e < GameState.ESTATES; e++) {
+            if (e != current) {
+                actions.add(e);
+            }
+        }
+        return search(game, player, root, actions, true);
+    }
+
+    /**
+     * Runs the search for one decision and picks the action visited most often.
+     *
+     * @param game the game being played
+     * @param player the player deciding
+     * @param root what the player can see of the game
+     * @param actions the actions to choose between
+     * @param moving true if the actions are Estates to head for, false if they are guesses
+     * @return the chosen action
+     */
+    private int search(Game game, Player player, GameState root, List<Integer> actions, boolean moving) {
+        if (actions.size() == 1) {
+            return actions.get(0);
+        }
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        int seat = game.getPlayers().indexOf(player);
+        int[] handSizes = new int[root.getSeats()];
+        for (int s = 0; s < handSizes.length; s++) {
+            handSizes[s] = game.getPlayers().get(s).getCardCount();
+        }
+        Deals deals = deals(player.getWorksheet().getDeduction(), start + budgetNanos / REFRESH_SHARE);
+        int[] acts = actions.stream().mapToInt(Integer::intValue).toArray();
+
+        long[] visits = new long[acts.length];
+        double[] wins = new double[acts.length];
+        if (threads == 1) {
+            new Search(root, seat, handSizes, deals, acts, moving, random.split(), deadline).run(visits, wins);
+        } else {
+            List<Callable<Search>> searches = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Search search = new Search(root, seat, handSizes, deals, acts, moving, random.split(), deadline);
+                searches.add(() -> {
+                    search.run(new long[acts.length], new double[acts.length]);
+                    return search;
+                });
+            }
+            for (Future<Search> result : ForkJoinPool.commonPool().invokeAll(searches)) {
+                try {
+                    Search search = result.get();
+                    for (int a = 0; a < acts.length; a++) {
+                        visits[a] += search.visits[a];
+                        wins[a] += search.wins[a];
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException("Search failed", e);
+                }
+            }
+        }
+
+        int best = 0;
+        for (int a = 1; a < acts.length; a++) {
+            if (visits[a] > visits[best] || (visits[a] == visits[best] && wins[a] > wins[best])) {
+                best = a;
+            }
+        }
+        long spent = System.nanoTime() - start;
+        decisions++;
+        searchNanos += spent;
+        worstNanos = Math.max(worstNanos, spent);
+        return acts[best];
+    }
+
+    /**
+     * Brings the player's Belief up to date and gathers its deals for the searches to draw from.
+     * The deals are only gathered again when the Belief has changed. If the Belief cannot be
+     * brought up to date by the deadline, the deals gathered last time are used again.
+     *
+     * @param deduction the player's Deduction
+     * @param deadline the System.nanoTime() by which to stop refreshing the Belief
+     * @return the deals, which are empty if nothing is consistent with what the player has seen
+     */
+    private Deals deals(Deduction deduction, long deadline) {
+        if (belief == null || belief.getDeduction() != deduction) {
+            belief = new Belief(deduction, random.split());
+            dealsEvents = -1;
+        }
+        int events = deduction.getEventCount();
+        if (events == dealsEvents || !belief.refresh(deadline)) {
+            return deals;
+        }
+        int seats = deduction.getSeats();
+        int count = 0;
+        for (int deal = 0; deal < belief.getDealCount(); deal++) {
+            if (belief.getWeight(deal) != 0) {
+                count++;
+            }
+        }
+        int[] hands = new int[count * (seats + 1)];
+        double[] cumulative = new double[count];
+        double total = 0;
+        int i = 0;
+        for (int deal = 0; deal < belief.getDealCount(); deal++) {
+            if (belief.getWeight(deal) == 0) {
+                continue;
+            }
+            for (int s = 0; s < seats; s++) {
+                hands[i * (seats + 1) + s] = (int) belief.getHand(deal, s);
+            }
+            hands[i * (seats + 1) + seats] = (int) belief.getSolution(deal);
+            total += belief.getWeight(deal);
+            cumulative[i++] = total;
+        }
+        deals = new Deals(seats, count, hands, cumulative);
+        dealsEvents = events;
+        return deals;
+    }
+
+    /**
+     * The deals of a Belief, with the solution after the hands of each, and their running
+     * total weight, for drawing deals in proportion to their weight. Shared by every search
+     * for one decision, and never changed.
+     */
+    private record Deals(int seats, int count, int[] hands, double[] cumulative) {
+        /**
+         * Checks whether there is any deal with weight to draw.
+         */
+        boolean isEmpty() {
+            return count == 0 || cumulative[count - 1] <= 0;
+        }
+
+        /**
+         * Finds the deal a point along the running total weight falls in.
+         *
+         * @param fraction how far along the total, from 0 inclusive to 1 exclusive
+         * @return the deal index
+         */
+        int find(double fraction) {
+            double point = fraction * cumulative[count - 1];
+            int low = 0;
+            int high = count - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] > point) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * One search tree's root: the statistics of each action, gathered on one thread.
+     */
+    private static final class Search {
+        private final GameState root;
+        private final int seat;
+        private final int[] handSizes;
+        private final Deals deals;
+        private final int[] actions;
+        private final boolean moving;
+        private final RandomSource random;
+        private final long deadline;
+        private final int shown;
+        private final Playout playout;
+        private final GameState world = new GameState();
+        private final int[] deck = new int[Card.COUNT];
+        private long[] visits;
+        private double[] wins;
+
+        Search(GameState root, int seat, int[] handSizes, Deals deals, int[] actions, boolean moving, RandomSource random, long deadline) {
+            this.root = root;
+            this.seat = seat;
+            this.handSizes = handSizes;
+            this.deals = deals;
+            this.actions = actions;
+            this.moving = moving;
+            this.random = random;
+            this.deadline = deadline;
+            this.playout = new Playout(random);
+            this.shown = Integer.bitCount(root.getKnown(seat) & ~root.getHand(seat));
+        }
+
+        /**
+         * Runs iterations until the deadline, adding to the given statistics.
+         * Nothing is run if the deadline has already passed.
+         */
+        void run(long[] visits, double[] wins) {
+            this.visits = visits;
+            this.wins = wins;
+            long total = 0;
+            while (System.nanoTime() < deadline) {
+                int a = select(total);
+                determinise();
+                play(actions[a]);
+                visits[a]++;
+                if (playout.play(world, MAX_PLAYOUT_TURNS) == seat) {
+                    wins[a]++;
+                }
+                total++;
+            }
+        }
+
+        /**
+         * Picks the action to try next by UCB1, trying every action once first.
+         */
+        private int select(long total) {
+            int best = 0;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            double log = Math.log(Math.max(1, total));
+            for (int a = 0; a < actions.length; a++) {
+                if (visits[a] == 0) {
+                    return a;
+                }
+                double score = wins[a] / visits[a] + EXPLORATION * Math.sqrt(log / visits[a]);
+                if (score > bestScore) {
+                    best = a;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Fills the world with one possible deal consistent with what the player knows,
+         * drawn from the Belief's deals in proportion to their weight.
+         */
+        private void determinise() {
+            if (deals.isEmpty()) {
+                dealUniformly();
+                return;
+            }
+            world.copyFrom(root);
+            int deal = deals.find(random.nextInt(1 << 30) / (double) (1 << 30));
+            int base = deal * (deals.seats() + 1);
+            int solution = deals.hands()[base + deals.seats()];
+            world.setSolution(solution);
+            for (int s = 0; s < world.getSeats(); s++) {
+                if (s != seat) {
+                    int hand = deals.hands()[base + s];
+                    world.setHand(s, hand);
+                    world.setKnown(s, hand | learned(hand, solution));
+                }
+            }
+        }
+
+        /**
+         * Fills the world with a deal that only respects the cards the player has seen and the
+         * public hand sizes: a solution from the cards it has not seen, and the remaining cards
+         * dealt to the other seats at random. Used only when the Deduction has been told
+         * something no deal agrees with.
+         */
+        private void dealUniformly() {
+            world.copyFrom(root);
+            int own = root.getHand(seat);
+            int unknown = GameState.ALL_CARDS & ~root.getKnown(seat);
+            int solution = (1 << pick(unknown & GameState.CHARACTER_CARDS))
+                    | (1 << pick(unknown & GameState.WEAPON_CARDS))
+                    | (1 << pick(unknown & GameState.ESTATE_CARDS));
+            world.setSolution(solution);
+
+            int rest = GameState.ALL_CARDS & ~own & ~solution;
+            int size = 0;
+            while (rest != 0) {
+                deck[size++] = Integer.numberOfTrailingZeros(rest);
+                rest &= rest - 1;
+            }
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int card = deck[i];
+                deck[i] = deck[j];
+                deck[j] = card;
+            }
+            int next = 0;
+            for (int s = 0; s < world.getSeats(); s++) {
+                if (s == seat) {
+                    continue;
+                }
+                int hand = 0;
+                for (int i = 0; i < handSizes[s] && next < size; i++) {
+                    hand |= 1 << deck[next++];
+                }
+                world.setHand(s, hand);
+                world.setKnown(s, hand | learned(hand, solution));
+            }
+        }
+
+        /**
+         * Makes up what another seat has learned so far. Nobody can see what the others have
+         * been shown, so each is assumed to have seen as many cards beyond its hand as this
+         * player has, drawn at random from the cards outside the solution.
+         */
+        private int learned(int hand, int solution) {
+            int unseen = GameState.ALL_CARDS & ~hand & ~solution;
+            int learned = 0;
+            for (int i = 0; i < shown && unseen != 0; i++) {
+                int card = 1 << pick(unseen);
+                learned |= card;
+                unseen &= ~card;
+            }
+            return learned;
+        }
+
+        /**
+         * Plays an action for the deciding seat, ending its turn.
+         */
+        private void play(int action) {
+            if (moving) {
+                int entered = playout.move(world, seat, action, world.getDice());
+                if (entered >= 0) {
+                    playout.guess(world, seat, entered);
+                }
+            } else if (action == SKIP) {
+                playout.moveAndGuess(world, seat);
+            } else {
+                int estate = GameState.estateOf(world.getPosition(world.getSeatCharacter(seat)));
+                int pair = action % PAIRS;
+                if (action >= SOLVE) {
+                    playout.solve(world, seat, pairMask(pair) | (1 << GameState.estateCard(estate)));
+                } else {
+                    playout.refute(world, seat, estate, pair / GameState.WEAPONS, GameState.CHARACTERS + pair % GameState.WEAPONS);
+                }
+            }
+            playout.endTurn(world);
+        }
+
+        private int pick(int mask) {
+            return mask == 0 ? 0 : playout.randomCard(mask);
+        }
+    }
+
+    /**
+     * Gets the mask of the Character and Weapon in a guess action.
+     */
+    private static int pairMask(int pair) {
+        return (1 << (pair / GameState.WEAPONS)) | (1 << (GameState.CHARACTERS + pair % GameState.WEAPONS));
+    }
+
+    /**
+     * Gets the average time this controller has spent on each decision.
+     *
+     * @return the time in milliseconds
+     */
+    public double averageDecisionMillis() {
+        return decisions == 0 ? 0 : searchNanos / 1e6 / decisions;
+    }
+
+    /**
+     * Gets the longest time this controller has spent on one decision.
+     *
+     * @return the time in milliseconds
+     */
+    public double worstDecisionMillis() {
+        return worstNanos / 1e6;
+    }
+
+    /**
+     * Plays a batch of games with this controller in the first seat against greedy controllers,
+     * and reports how often each seat wins and how long decisions took.
+     *
+     * @param args optionally the number of games, the number of players, the budget per decision in milliseconds,
+     *             the number of threads, then the seed
+     */
+    public static void main(String... args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int playerCount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long budget = args.length > 2 ? Long.parseLong(args[2]) : 20;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        RandomSource root = new SplittableRandomSource(seed);
+
+        long[] wins = new long[playerCount];
+        double millis = 0;
+        double worst = 0;
+        for (int g = 0; g < games; g++) {
+            Game game = new Game(root.split());
+            List<PlayerController> controllers = new ArrayList<>();
+            IsmctsController bot = new IsmctsController(root.split(), budget, threads);
+            controllers.add(bot);
+            for (int i = 1; i < playerCount; i++) {
+                controllers.add(new GreedyController(root.split()));
+            }
+            Simulator.Result result = new Simulator(game, controllers).playGame(10000);
+            if (result.winnerSeat() >= 0) {
+                wins[result.winnerSeat()]++;
+            }
+            millis += bot.averageDecisionMillis();
+            worst = Math.max(worst, bot.worstDecisionMillis());
+        }
+        System.out.printf("%d games, %d ms budget on %d threads: wins by seat %s (search in seat 0 wins %.1f%%), %.1f ms per decision, worst %.1f ms%n",
+                games, budget, threads, Arrays.toString(wins), 100.0 * wins[0] / games, millis / games, worst);
+    }
+}
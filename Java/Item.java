@@ -7,6 +7,16 @@
  */
 public class Item {
 
+  /**
+   * The shared item stored on every tile that holds nothing.
+   */
+  public static final Item EMPTY = new Item("empty", "", 0, 0, true);
+
+  /**
+   * The shared item stored on every tile a character has walked over this turn.
+   */
+  public static final Item USED = new Item("Used", "+", 0, 0, true);
+
   /**
    * The name of the item.
    */
@@ -33,6 +43,11 @@ public class Item {
    */
   private Estate estate;
 
+  /**
+   * Whether this is one of the shared sentinel items, which can never be moved.
+   */
+  private final boolean fixed;
+
   /**
    * Constructor for the Item class.
    *
@@ -42,11 +57,16 @@ public class Item {
    * @param aY           The Y-coordinate position of the item.
    */
   public Item(String aName, String aDisplayIcon, int aX, int aY) {
+    this(aName, aDisplayIcon, aX, aY, false);
+  }
+
+  private Item(String aName, String aDisplayIcon, int aX, int aY, boolean aFixed) {
     name = aName;
     displayIcon = aDisplayIcon;
     x = aX;
     y = aY;
     estate = null;
+    fixed = aFixed;
   }
 
   /**
@@ -56,6 +76,9 @@ public class Item {
    * @return true if the X-coordinate was set successfully; otherwise, false.
    */
   public boolean setX(int aX) {
+    if (fixed) {
+      return false;
+    }
     x = aX;
     return true;
   }
@@ -67,6 +90,9 @@ public class Item {
    * @return true if the Y-coordinate was set successfully; otherwise, false.
    */
   public boolean setY(int aY) {
+    if (fixed) {
+      return false;
+    }
     y = aY;
     return true;
   }
@@ -114,6 +140,9 @@ public class Item {
    * @return true if the estate was set successfully; otherwise, false.
    */
   public boolean setEstate(Estate aEstate) {
+    if (fixed) {
+      return false;
+    }
     estate = aEstate;
     return true;
   }
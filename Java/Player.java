@@ -14,6 +14,11 @@ public class Player {
    */
   private List<Card> cards;
 
+  /**
+   * The player's hand as a card mask, with the bit of every held card set.
+   */
+  private long hand;
+
   /**
    * The character controlled by the player.
    */
@@ -57,9 +62,18 @@ public class Player {
    * @return True if the card was added successfully, false otherwise.
    */
   public boolean addCard(Card aCard) {
+    hand |= aCard.getMask();
     return cards.add(aCard);
   }
 
+  /**
+   * Removes every card from the player's hand.
+   */
+  public void clearCards() {
+    hand = 0;
+    cards.clear();
+  }
+
   /**
    * Sets the player's eligibility status.
    *
@@ -81,6 +95,24 @@ public class Player {
     return cards.toArray(new Card[cards.size()]);
   }
 
+  /**
+   * Gets the number of cards in the player's hand, without copying them.
+   *
+   * @return The number of cards held.
+   */
+  public int getCardCount() {
+    return cards.size();
+  }
+
+  /**
+   * Gets the player's hand as a card mask.
+   *
+   * @return The mask with the bit of every held card set.
+   */
+  public long getHandMask() {
+    return hand;
+  }
+
   /**
    * Gets the character controlled by the player.
    *
@@ -0,0 +1,48 @@
+import java.util.*;
+
+/**
+ * Decides the actions of a single seat when a game is played without the Gui.
+ * The Simulator asks the controller for every decision a human would otherwise
+ * make through the Gui listeners: where to step, what to guess, and which card to refute with.
+ */
+public interface PlayerController {
+
+    /**
+     * A guess or solve attempt chosen by a controller.
+     *
+     * @param character the guessed character
+     * @param weapon the guessed weapon
+     * @param solve whether this is a solve attempt
+     */
+    record Guess(String character, String weapon, boolean solve) {}
+
+    /**
+     * Chooses the next step of the player's Character.
+     * Called while the player still has moves remaining.
+     *
+     * @param game the game being played
+     * @param player the player whose turn it is
+     * @return the direction to step in, or null to stop moving
+     */
+    Game.Direction chooseMove(Game game, Player player);
+
+    /**
+     * Chooses a guess or solve attempt for the Estate the player's Character is in.
+     * Only called when the player is eligible, inside an Estate, and has not guessed this turn.
+     *
+     * @param game the game being played
+     * @param player the player whose turn it is
+     * @return the guess to make, or null to skip guessing this turn
+     */
+    Guess chooseGuess(Game game, Player player);
+
+    /**
+     * Chooses which card to show the guesser.
+     *
+     * @param game the game being played
+     * @param refuter the player refuting the guess
+     * @param refuteableCards the names of the refuter's cards that appear in the guess, never empty
+     * @return the name of the card to show
+     */
+    String chooseRefute(Game game, Player refuter, List<String> refuteableCards);
+}
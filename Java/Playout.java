@@ -0,0 +1,304 @@
+import java.util.*;
+
+/**
+ * Plays a GameState forwards quickly with a simple policy, for search.
+ * Every player heads for the nearest Estate whose card they have not seen, guesses
+ * Characters and Weapons they have not seen, and solves as soon as only one card of
+ * each type is left unseen. Movement is abstracted: a Character walks the shortest path
+ * from DistanceTable, ignoring the other Characters and the trail.
+ *
+ * A Playout keeps no state between calls beyond its RandomSource, so each thread
+ * running playouts needs one of its own.
+ */
+public final class Playout {
+    /**
+     * The tiles a Character can leave each Estate onto, by Estate index.
+     */
+    private static final class Layout {
+        static final int[][] EXITS = exits(new Board());
+
+        private static int[][] exits(Board board) {
+            List<Estate> estates = board.getEstates();
+            int[][] exits = new int[estates.size()][];
+            for (int e = 0; e < estates.size(); e++) {
+                List<EntranceTile> entrances = estates.get(e).getEntranceTiles();
+                exits[e] = new int[entrances.size()];
+                for (int i = 0; i < entrances.size(); i++) {
+                    exits[e][i] = entrances.get(i).getExitY() * 24 + entrances.get(i).getExitX();
+                }
+            }
+            return exits;
+        }
+    }
+
+    private final DistanceTable distances = DistanceTable.get();
+    private final RandomSource random;
+
+    /**
+     * Constructor for the Playout class.
+     *
+     * @param random the source of dice rolls and of the players' random choices
+     */
+    public Playout(RandomSource random) {
+        this.random = random;
+    }
+
+    /**
+     * Plays turns until somebody wins, nobody is eligible, or the turn limit is reached.
+     *
+     * @param state the state to play forwards, which is changed
+     * @param maxTurns the turn limit
+     * @return the winning seat, or -1
+     */
+    public int play(GameState state, int maxTurns) {
+        for (int turn = 0; turn < maxTurns && state.getWinner() < 0 && state.anyEligible(); turn++) {
+            playTurn(state);
+        }
+        return state.getWinner();
+    }
+
+    /**
+     * Plays the current player's turn with the policy, then passes the turn on.
+     *
+     * @param state the state
+     */
+    public void playTurn(GameState state) {
+        int seat = state.getTurn();
+        if (state.isEligible(seat)) {
+            int estate = GameState.estateOf(state.getPosition(state.getSeatCharacter(seat)));
+            if (estate >= 0 && isUnknown(state, seat, GameState.estateCard(estate))) {
+                guess(state, seat, estate);
+            } else {
+                moveAndGuess(state, seat);
+            }
+        }
+        endTurn(state);
+    }
+
+    /**
+     * Rolls the dice, walks towards the nearest unseen Estate and guesses there if it is reached.
+     *
+     * @param state the state
+     * @param seat the seat moving
+     */
+    public void moveAndGuess(GameState state, int seat) {
+        int target = nearestUnknownEstate(state, seat);
+        if (target < 0) {
+            return;
+        }
+        int entered = move(state, seat, target, random.nextInt(6) + random.nextInt(6) + 2);
+        if (entered >= 0) {
+            guess(state, seat, entered);
+        }
+    }
+
+    /**
+     * Passes the turn to the next seat, resetting the dice and the trail.
+     *
+     * @param state the state
+     */
+    public void endTurn(GameState state) {
+        state.setDice(0);
+        state.setDiceRolled(false);
+        state.setGuessMade(false);
+        state.clearTrail();
+        state.setTurn((state.getTurn() + 1) % state.getSeats());
+    }
+
+    /**
+     * Finds the closest Estate, other than the one the seat's Character is in,
+     * whose card the seat has not seen.
+     *
+     * @param state the state
+     * @param seat the seat
+     * @return the Estate index, or -1 if every other Estate has been seen
+     */
+    public int nearestUnknownEstate(GameState state, int seat) {
+        int position = state.getPosition(state.getSeatCharacter(seat));
+        int current = GameState.estateOf(position);
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int e = 0; e < GameState.ESTATES; e++) {
+            if (e != current && isUnknown(state, seat, GameState.estateCard(e))) {
+                int d = current >= 0 ? distances.estateDistance(current, e) : distances.distance(e, position);
+                if (d < bestDistance) {
+                    best = e;
+                    bestDistance = d;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Walks the seat's Character towards an Estate along a shortest path.
+     *
+     * @param state the state
+     * @param seat the seat moving
+     * @param target the Estate index to head for
+     * @param moves the number of moves available
+     * @return the target if it was reached, otherwise -1
+     */
+    public int move(GameState state, int seat, int target, int moves) {
+        int character = state.getSeatCharacter(seat);
+        int position = state.getPosition(character);
+        int current = GameState.estateOf(position);
+        if (current == target) {
+            return target;
+        }
+        if (current >= 0) {
+            if (distances.estateDistance(current, target) <= moves) {
+                state.setPosition(character, GameState.ESTATE_BASE + target);
+                return target;
+            }
+            // Leave through the exit closest to the target
+            int best = Layout.EXITS[current][0];
+            for (int exit : Layout.EXITS[current]) {
+                if (distances.distance(target, exit) < distances.distance(target, best)) {
+                    best = exit;
+                }
+            }
+            position = best;
+            moves--;
+        }
+        int distance = distances.distance(target, position);
+        if (distance <= moves) {
+            state.setPosition(character, GameState.ESTATE_BASE + target);
+            return target;
+        }
+        for (int step = 0; step < moves && distance != DistanceTable.UNREACHABLE; step++) {
+            position = downhill(target, position, distance);
+            distance--;
+        }
+        state.setPosition(character, position);
+        return -1;
+    }
+
+    /**
+     * Finds a neighbouring tile one move closer to an Estate.
+     */
+    private int downhill(int target, int position, int distance) {
+        int y = position / 24;
+        int x = position % 24;
+        if (y > 0 && distances.distance(target, position - 24) == distance - 1) {
+            return position - 24;
+        }
+        if (x < 23 && distances.distance(target, position + 1) == distance - 1) {
+            return position + 1;
+        }
+        if (y < 23 && distances.distance(target, position + 24) == distance - 1) {
+            return position + 24;
+        }
+        if (x > 0 && distances.distance(target, position - 1) == distance - 1) {
+            return position - 1;
+        }
+        return position;
+    }
+
+    /**
+     * Makes the policy's guess, or solve attempt, in an Estate.
+     *
+     * @param state the state
+     * @param seat the seat guessing
+     * @param estate the Estate the seat's Character is in
+     */
+    public void guess(GameState state, int seat, int estate) {
+        int unknown = GameState.ALL_CARDS & ~state.getKnown(seat);
+        int characters = unknown & GameState.CHARACTER_CARDS;
+        int weapons = unknown & GameState.WEAPON_CARDS;
+        int estateCard = 1 << GameState.estateCard(estate);
+        if (Integer.bitCount(characters) == 1 && Integer.bitCount(weapons) == 1 && (unknown & GameState.ESTATE_CARDS) == estateCard) {
+            solve(state, seat, characters | weapons | estateCard);
+            return;
+        }
+        int character = randomCard(characters != 0 ? characters : GameState.CHARACTER_CARDS);
+        int weapon = randomCard(weapons != 0 ? weapons : GameState.WEAPON_CARDS);
+        refute(state, seat, estate, character, weapon);
+    }
+
+    /**
+     * Makes a guess: brings the guessed Character and Weapon into the Estate, and the first
+     * seat after the guesser holding a guessed card shows one of them at random.
+     * If nobody can, the guesser learns that the guessed cards they do not hold are the solution.
+     *
+     * @param state the state
+     * @param seat the seat guessing
+     * @param estate the Estate guessed in
+     * @param character the guessed Character's card id
+     * @param weapon the guessed Weapon's card id
+     * @return the card id shown, or -1 if nobody could refute
+     */
+    public int refute(GameState state, int seat, int estate, int character, int weapon) {
+        state.setPosition(character, GameState.ESTATE_BASE + estate);
+        state.setWeaponEstate(weapon, estate);
+        int guess = (1 << character) | (1 << weapon) | (1 << GameState.estateCard(estate));
+        for (int i = 1; i < state.getSeats(); i++) {
+            int refuter = (seat + i) % state.getSeats();
+            int cards = state.getHand(refuter) & guess;
+            if (cards != 0) {
+                int shown = randomCard(cards);
+                state.setKnown(seat, state.getKnown(seat) | (1 << shown));
+                return shown;
+            }
+        }
+        state.setKnown(seat, state.getKnown(seat) | unrefuted(guess, state.getHand(seat)));
+        return -1;
+    }
+
+    /**
+     * Works out what a guess that nobody could refute proves: each guessed card the guesser
+     * does not hold is in the solution, so every other card of its type is not.
+     *
+     * @param guess the mask of the three cards guessed
+     * @param hand the mask of the guesser's hand
+     * @return the mask of the cards ruled out of the solution
+     */
+    public static int unrefuted(int guess, int hand) {
+        int solution = guess & ~hand;
+        return ruledOut(solution, GameState.CHARACTER_CARDS) | ruledOut(solution, GameState.WEAPON_CARDS)
+                | ruledOut(solution, GameState.ESTATE_CARDS);
+    }
+
+    /**
+     * Gets the cards of a type that cannot be the solution, once the solution's card of that type is known.
+     *
+     * @return the other cards of the type, or nothing if the solution has no card of the type
+     */
+    private static int ruledOut(int solution, int type) {
+        return (solution & type) != 0 ? type & ~solution : 0;
+    }
+
+    /**
+     * Makes a solve attempt. A correct one wins the game; a wrong one makes the seat ineligible.
+     *
+     * @param state the state
+     * @param seat the seat solving
+     * @param guess the mask of the three cards named
+     * @return true if the attempt was correct
+     */
+    public boolean solve(GameState state, int seat, int guess) {
+        if (guess == state.getSolution()) {
+            state.setWinner(seat);
+            return true;
+        }
+        state.setEligible(seat, false);
+        return false;
+    }
+
+    private static boolean isUnknown(GameState state, int seat, int card) {
+        return (state.getKnown(seat) & (1 << card)) == 0;
+    }
+
+    /**
+     * Picks one card from a non-empty mask, uniformly at random.
+     *
+     * @param mask the cards to pick from
+     * @return the card id
+     */
+    public int randomCard(int mask) {
+        for (int skip = random.nextInt(Integer.bitCount(mask)); skip > 0; skip--) {
+            mask &= mask - 1;
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+}
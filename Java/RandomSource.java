@@ -0,0 +1,25 @@
+/**
+ * A source of random numbers for a game of HobbyDetectives.
+ * Supplied to a Game when it is constructed, so that every random choice in the
+ * game (starting player, weapon placement, murder cards, dealing, and dice)
+ * comes from one place and can be replayed from a seed.
+ */
+public interface RandomSource {
+
+    /**
+     * Returns a uniformly distributed number between 0 (inclusive) and the bound (exclusive).
+     *
+     * @param bound the upper bound, must be positive
+     * @return the random number
+     */
+    int nextInt(int bound);
+
+    /**
+     * Creates a new, independent source from this one, advancing this source.
+     * Splitting the same source in the same order always gives the same children,
+     * so a whole tree of parallel games can be replayed from its root seed.
+     *
+     * @return the new source
+     */
+    RandomSource split();
+}
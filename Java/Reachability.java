@@ -0,0 +1,247 @@
+import java.util.*;
+
+/**
+ * The reachable-squares engine for HobbyDetectives.
+ * Finds every Tile and every Estate a Character can get to with a given number of moves,
+ * following the same rules as Game.moveInDirection: walls and occupied tiles block,
+ * tiles already walked this turn may not be revisited, stepping onto an EntranceTile
+ * enters its Estate, and any move out of an Estate lands on one of its exit tiles.
+ *
+ * Results are bitsets of WORDS longs: bit (row * 24 + col) for each Tile,
+ * and bit (ESTATE_BASE + i) for the i-th Estate in Board.getEstates().
+ * An engine reuses its own scratch arrays, so a single instance must not be used
+ * by two threads at once; the layout it captures is immutable and may be shared.
+ */
+public class Reachability {
+    /**
+     * The number of tiles on the board.
+     */
+    public static final int TILES = 24 * 24;
+
+    /**
+     * The bit index of the first Estate in a result.
+     */
+    public static final int ESTATE_BASE = TILES;
+
+    /**
+     * The number of longs in a result.
+     */
+    public static final int WORDS = (ESTATE_BASE + 64) / 64;
+
+    private static final int UNVISITED = Integer.MAX_VALUE;
+
+    /**
+     * For each tile, the index of the Estate it is an entrance to, or -1.
+     */
+    private final int[] entranceEstate;
+
+    /**
+     * For each Estate, the distinct tiles a Character lands on when leaving it.
+     */
+    private final int[][] estateExits;
+
+    // Scratch space, reused by every search
+    private final int[] distance;
+    private final int[] queue;
+    private final long[] walked = new long[WORDS];
+
+    /**
+     * Constructor for an engine over a board's fixed layout.
+     *
+     * @param board the board whose walls, entrances and exits are captured
+     */
+    public Reachability(Board board) {
+        List<Estate> estates = board.getEstates();
+        entranceEstate = new int[TILES];
+        Arrays.fill(entranceEstate, -1);
+        estateExits = new int[estates.size()][];
+        for (int e = 0; e < estates.size(); e++) {
+            Set<Integer> exits = new LinkedHashSet<>();
+            for (EntranceTile entrance : estates.get(e).getEntranceTiles()) {
+                entranceEstate[entrance.yCoord * 24 + entrance.xCoord] = e;
+                exits.add(entrance.getExitY() * 24 + entrance.getExitX());
+            }
+            estateExits[e] = exits.stream().mapToInt(Integer::intValue).toArray();
+        }
+        distance = new int[TILES + estates.size()];
+        queue = new int[TILES + estates.size()];
+    }
+
+    /**
+     * Creates an engine sharing another engine's layout, with its own scratch space.
+     * Used to run searches on several threads at once.
+     *
+     * @param layout the engine whose layout is shared
+     */
+    public Reachability(Reachability layout) {
+        entranceEstate = layout.entranceEstate;
+        estateExits = layout.estateExits;
+        distance = new int[layout.distance.length];
+        queue = new int[layout.queue.length];
+    }
+
+    /**
+     * Finds everywhere reachable from a starting point, without allocating.
+     * The starting Tile or Estate itself is never part of the result.
+     *
+     * With exact set, only places reachable in exactly the given number of moves are kept.
+     * Parity cannot decide this, as no tile may be walked twice and the Estates' exits break
+     * the grid's parity, so every walk of that length is followed instead. Each tile left is
+     * added to the trail, while an Estate may be entered and left again through another exit.
+     *
+     * @param safe the bitboard of tiles that may be stepped onto, as from Board.safeTiles,
+     *             with the trail of tiles already walked this turn cleared
+     * @param startTile the tile index the Character stands on, ignored if startEstate is set
+     * @param startEstate the index of the Estate the Character is in, or -1
+     * @param moves the number of moves available
+     * @param exact whether to keep only places reachable in exactly that many moves
+     * @param out the array to write the result into, of at least WORDS longs
+     * @return the same array
+     */
+    public long[] reachable(long[] safe, int startTile, int startEstate, int moves, boolean exact, long[] out) {
+        Arrays.fill(out, 0, WORDS, 0L);
+        if (exact) {
+            Arrays.fill(walked, 0L);
+            int start = startEstate >= 0 ? ESTATE_BASE + startEstate : startTile;
+            if (startEstate < 0) {
+                walked[startTile >>> 6] |= 1L << startTile;
+            }
+            walk(safe, start, moves, out);
+            out[start >>> 6] &= ~(1L << start);
+            return out;
+        }
+        Arrays.fill(distance, UNVISITED);
+        int head = 0;
+        int tail = 0;
+        int start = startEstate >= 0 ? ESTATE_BASE + startEstate : startTile;
+        distance[start] = 0;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int node = queue[head++];
+            int next = distance[node] + 1;
+            if (next > moves) {
+                continue;
+            }
+            if (node >= ESTATE_BASE) {
+                for (int exit : estateExits[node - ESTATE_BASE]) {
+                    tail = visit(safe, exit, next, tail);
+                }
+            } else {
+                int y = node / 24;
+                int x = node % 24;
+                if (y > 0) {
+                    tail = visit(safe, node - 24, next, tail);
+                }
+                if (x < 23) {
+                    tail = visit(safe, node + 1, next, tail);
+                }
+                if (y < 23) {
+                    tail = visit(safe, node + 24, next, tail);
+                }
+                if (x > 0) {
+                    tail = visit(safe, node - 1, next, tail);
+                }
+            }
+        }
+
+        for (int i = 0; i < tail; i++) {
+            int node = queue[i];
+            if (node != start) {
+                out[node >>> 6] |= 1L << node;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Follows every walk from a place that uses up the moves left, without revisiting a tile,
+     * and adds the places the walks end on to the result.
+     */
+    private void walk(long[] safe, int node, int left, long[] out) {
+        if (left == 0) {
+            out[node >>> 6] |= 1L << node;
+            return;
+        }
+        if (node >= ESTATE_BASE) {
+            for (int exit : estateExits[node - ESTATE_BASE]) {
+                step(safe, exit, left - 1, out);
+            }
+            return;
+        }
+        int y = node / 24;
+        int x = node % 24;
+        if (y > 0) {
+            step(safe, node - 24, left - 1, out);
+        }
+        if (x < 23) {
+            step(safe, node + 1, left - 1, out);
+        }
+        if (y < 23) {
+            step(safe, node + 24, left - 1, out);
+        }
+        if (x > 0) {
+            step(safe, node - 1, left - 1, out);
+        }
+    }
+
+    /**
+     * Takes one step of a walk onto a tile, or into the Estate the tile is an entrance to,
+     * unless the tile is blocked or already on the walk.
+     */
+    private void step(long[] safe, int tile, int left, long[] out) {
+        long bit = 1L << tile;
+        if ((safe[tile >>> 6] & bit) == 0 || (walked[tile >>> 6] & bit) != 0) {
+            return;
+        }
+        if (entranceEstate[tile] >= 0) {
+            walk(safe, ESTATE_BASE + entranceEstate[tile], left, out);
+            return;
+        }
+        walked[tile >>> 6] |= bit;
+        walk(safe, tile, left, out);
+        walked[tile >>> 6] &= ~bit;
+    }
+
+    /**
+     * Records a step onto a tile, or into the Estate the tile is an entrance to.
+     *
+     * @return the new tail of the queue
+     */
+    private int visit(long[] safe, int tile, int steps, int tail) {
+        if ((safe[tile >>> 6] & (1L << tile)) == 0) {
+            return tail;
+        }
+        int node = entranceEstate[tile] >= 0 ? ESTATE_BASE + entranceEstate[tile] : tile;
+        if (distance[node] == UNVISITED) {
+            distance[node] = steps;
+            queue[tail++] = node;
+        }
+        return tail;
+    }
+
+    /**
+     * Checks whether a result contains a Tile.
+     *
+     * @param result the result of a search
+     * @param y the row index
+     * @param x the column index
+     * @return true if the tile is reachable
+     */
+    public static boolean containsTile(long[] result, int y, int x) {
+        int bit = y * 24 + x;
+        return (result[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Checks whether a result contains an Estate.
+     *
+     * @param result the result of a search
+     * @param estate the index of the Estate in Board.getEstates()
+     * @return true if the Estate is reachable
+     */
+    public static boolean containsEstate(long[] result, int estate) {
+        int bit = ESTATE_BASE + estate;
+        return (result[bit >>> 6] & (1L << bit)) != 0;
+    }
+}
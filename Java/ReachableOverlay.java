@@ -0,0 +1,101 @@
+import java.util.concurrent.*;
+import javax.swing.SwingUtilities;
+
+/**
+ * Works out where the current Character can get to with the moves they have left,
+ * for the board view to highlight, without the event dispatch thread ever waiting on it.
+ *
+ * Each request takes a snapshot of the Board on the calling thread: a copy of its
+ * safe-tile bitboard, the starting point and the moves. The search then runs on a
+ * background thread with its own Reachability engine, which shares only the Board's
+ * immutable layout. A new request cancels the one before it, and results are handed
+ * back on the event dispatch thread only if no newer request has been made since.
+ */
+public class ReachableOverlay {
+    /**
+     * Receives the places to highlight, on the event dispatch thread.
+     */
+    public interface View {
+        /**
+         * Called when a search finishes, or the highlight is cleared.
+         *
+         * @param reachable the result of the search, as from Reachability, or null for no highlight
+         */
+        void reachableChanged(long[] reachable);
+    }
+
+    private final View view;
+    private final Reachability engine;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reachable-overlay");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    /**
+     * The latest request, and a count of the requests made, used to drop superseded results.
+     * Only touched on the event dispatch thread.
+     */
+    private Future<?> pending;
+    private int generation = 0;
+
+    /**
+     * Constructor for the ReachableOverlay class.
+     *
+     * @param board the board whose layout is searched
+     * @param view the view to hand results to
+     */
+    public ReachableOverlay(Board board, View view) {
+        this.view = view;
+        this.engine = new Reachability(board.getReachability());
+    }
+
+    /**
+     * Starts working out where an item can get to, superseding any earlier request.
+     * Must be called on the event dispatch thread.
+     *
+     * @param board the board, whose occupancy and trail are copied before returning
+     * @param item the item being moved
+     * @param moves the number of moves left; with none, the highlight is cleared
+     */
+    public void update(Board board, Item item, int moves) {
+        if (moves <= 0) {
+            clear();
+            return;
+        }
+        long[] safe = board.safeTiles(new long[Reachability.TILES / 64]);
+        int startTile = item.getY() * 24 + item.getX();
+        int startEstate = board.getEstates().indexOf(item.getEstate());
+        int request = supersede();
+        pending = executor.submit(() -> {
+            long[] reachable = engine.reachable(safe, startTile, startEstate, moves, false, new long[Reachability.WORDS]);
+            SwingUtilities.invokeLater(() -> {
+                if (request == generation) {
+                    view.reachableChanged(reachable);
+                }
+            });
+        });
+    }
+
+    /**
+     * Cancels any request in progress and clears the highlight.
+     * Must be called on the event dispatch thread.
+     */
+    public void clear() {
+        supersede();
+        view.reachableChanged(null);
+    }
+
+    /**
+     * Cancels the latest request, so that its result is never shown.
+     *
+     * @return the number of the next request
+     */
+    private int supersede() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        return ++generation;
+    }
+}
@@ -0,0 +1,207 @@
+import java.util.*;
+
+/**
+ * A headless driver for a game of HobbyDetectives.
+ * Plays complete games through the same Game methods the Gui listeners use
+ * (setup, dice, movement, guess, refute, solve, and turn updates), with every
+ * decision delegated to a PlayerController per seat instead of a human.
+ * Never touches the Gui, so no Swing classes are loaded.
+ */
+public class Simulator {
+    /**
+     * The number of consecutive blocked steps after which a player stops moving for the turn.
+     */
+    private static final int MAX_BLOCKED_STEPS = 8;
+
+    /**
+     * The outcome of a simulated game.
+     *
+     * @param winnerSeat the seat of the winning player, or -1 if nobody won
+     * @param winnerCharacter the name of the winning player's Character, or null if nobody won
+     * @param turns the number of turns played
+     */
+    public record Result(int winnerSeat, String winnerCharacter, int turns) {}
+
+    private final Game game;
+    private final List<PlayerController> controllers;
+    private final List<Player> seats = new ArrayList<>();
+    private int turns = 0;
+
+    /**
+     * Constructor for the Simulator class.
+     * Seats one player per controller, in turn order, and sets up the game.
+     *
+     * @param game a fresh game that has not yet been set up
+     * @param controllers the controllers for each seat, three or four of them
+     */
+    public Simulator(Game game, List<PlayerController> controllers) {
+        if (controllers.size() < 3 || controllers.size() > 4) {
+            throw new IllegalArgumentException("HobbyDetectives needs 3 or 4 players, got " + controllers.size());
+        }
+        this.game = game;
+        this.controllers = controllers;
+
+        game.setPlayerCount(controllers.size());
+        for (int i = 0; i < controllers.size(); i++) {
+            Character character = game.getModifiableCharacterList().get(0);
+            game.removeFromModifiableCharacterList(0);
+            Player player = new Player(character, new Worksheet(), "Seat " + i, true);
+            seats.add(player);
+            game.addPlayer(player);
+            game.incrementPlayerInitCount();
+        }
+        game.setupGame();
+    }
+
+    public Game getGame() {
+        return this.game;
+    }
+    public int getTurns() {
+        return this.turns;
+    }
+
+    /**
+     * Gets the controller for a player.
+     *
+     * @param player the player
+     * @return the controller deciding that player's actions
+     */
+    private PlayerController controllerFor(Player player) {
+        return controllers.get(seats.indexOf(player));
+    }
+
+    /**
+     * Plays a single turn for the current player, then passes the turn on.
+     *
+     * @return true if the game is still going, false once it is over
+     */
+    public boolean playTurn() {
+        game.startTurn();
+        Player player = game.getCurrentPlayer();
+        PlayerController controller = controllerFor(player);
+
+        if (player.getIsEligible()) {
+            // A player already in an Estate may guess straight away, forfeiting their moves
+            if (player.getCharacter().isInEstate()) {
+                makeGuess(player, controller);
+            }
+            if (!game.getGuessMade() && !game.isGameOver()) {
+                game.setDiceRolled(true);
+                game.setDiceTotal(game.rollDice() + game.rollDice());
+                move(player, controller);
+                if (player.getCharacter().isInEstate()) {
+                    makeGuess(player, controller);
+                }
+            }
+        }
+
+        turns++;
+        if (game.isGameOver()) {
+            return false;
+        }
+        game.updateTurn();
+        return true;
+    }
+
+    /**
+     * Plays turns until the game is over or the turn limit is reached.
+     *
+     * @param maxTurns the turn limit, after which the game is abandoned with no winner
+     * @return the outcome of the game
+     */
+    public Result playGame(int maxTurns) {
+        while (turns < maxTurns && playTurn()) {
+            // keep playing
+        }
+        for (int i = 0; i < seats.size(); i++) {
+            if (seats.get(i).getName().equals(game.getWinner())) {
+                return new Result(i, seats.get(i).getCharacter().getName(), turns);
+            }
+        }
+        return new Result(-1, null, turns);
+    }
+
+    /**
+     * Steps the player's Character until the dice total is spent, the controller stops,
+     * or the Character has been blocked too many times in a row.
+     *
+     * @param player the player moving
+     * @param controller the player's controller
+     */
+    private void move(Player player, PlayerController controller) {
+        int blocked = 0;
+        while (game.getDiceTotal() > 0 && blocked < MAX_BLOCKED_STEPS) {
+            Game.Direction direction = controller.chooseMove(game, player);
+            if (direction == null) {
+                return;
+            }
+            int moved = game.moveInDirection(player.getCharacter(), direction);
+            game.decrementDiceTotal(moved);
+            blocked = moved == 0 ? blocked + 1 : 0;
+        }
+    }
+
+    /**
+     * Asks the controller for a guess, makes it, and resolves the solve attempt or refutation.
+     *
+     * @param player the player guessing
+     * @param controller the player's controller
+     */
+    private void makeGuess(Player player, PlayerController controller) {
+        PlayerController.Guess guess = controller.chooseGuess(game, player);
+        if (guess == null) {
+            return;
+        }
+        int result = game.guess(guess.character(), guess.weapon(), guess.solve());
+        if (guess.solve()) {
+            if (result == 0) {
+                player.setIsEligible(false);
+            }
+            return;
+        }
+
+        Game.Refutation refutation = game.getRefutation();
+        if (refutation.refuter() != null) {
+            Player refuter = refutation.refuter();
+            game.refute(controllerFor(refuter).chooseRefute(game, refuter, game.getRefuteableCards(refuter)));
+        }
+    }
+
+    /**
+     * Runs a batch of games between greedy controllers and reports the throughput.
+     * Every game and controller draws from a source split off one root seed,
+     * so running again with the same seed replays the batch exactly.
+     *
+     * @param args optionally the number of games, the number of players, then the seed
+     */
+    public static void main(String... args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int playerCount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        RandomSource root = new SplittableRandomSource(seed);
+
+        int solved = 0;
+        long totalTurns = 0;
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int g = 0; g < games; g++) {
+            Game game = new Game(root.split());
+            List<PlayerController> controllers = new ArrayList<>();
+            for (int i = 0; i < playerCount; i++) {
+                controllers.add(new GreedyController(root.split()));
+            }
+            Result result = new Simulator(game, controllers).playGame(10000);
+            totalTurns += result.turns();
+            checksum = checksum * 31 + result.turns() * 5 + result.winnerSeat();
+            if (result.winnerSeat() >= 0) {
+                solved++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games in %.2f s: %.0f games/s (%.0f games/min)%n",
+                games, seconds, games / seconds, games / seconds * 60);
+        System.out.printf("%d solved, %.1f turns per game%n", solved, (double) totalTurns / games);
+        System.out.printf("seed %d, results checksum %x%n", seed, checksum);
+    }
+}
@@ -0,0 +1,40 @@
+import java.util.SplittableRandom;
+
+/**
+ * The default RandomSource, backed by a java.util.SplittableRandom.
+ * Draws never allocate and never touch shared state, so one source per game
+ * is safe to use at full speed in parallel simulations.
+ */
+public class SplittableRandomSource implements RandomSource {
+    private final SplittableRandom random;
+
+    /**
+     * Constructor for a source with an unpredictable seed.
+     */
+    public SplittableRandomSource() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructor for a source that replays exactly from a seed.
+     *
+     * @param seed the seed
+     */
+    public SplittableRandomSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableRandomSource(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public RandomSource split() {
+        return new SplittableRandomSource(random.split());
+    }
+}
@@ -0,0 +1,183 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs large batches of headless games across every core.
+ * The batch is split recursively into shards on a ForkJoinPool; every game gets its own
+ * Game, Board and controllers, so no game state is ever shared between threads.
+ * Each shard tallies its games locally and adds them to LongAdders once when done,
+ * so aggregation never takes a lock.
+ * Shards split their RandomSource in a fixed order as they divide, so the same seed
+ * gives the same results however many threads the games are spread over.
+ */
+public class Tournament {
+    /**
+     * The number of games a shard plays itself rather than splitting further.
+     */
+    private static final int GAMES_PER_SHARD = 256;
+
+    /**
+     * The aggregated results of a tournament.
+     *
+     * @param games the number of games played
+     * @param winsBySeat the number of games won by each seat
+     * @param winsByCharacter the number of games won by each Character, in TurnOrder order
+     * @param solved the number of games that ended with a correct solve
+     * @param turnsToSolve the total turns taken by the solved games
+     * @param seconds the wall-clock time taken
+     */
+    public record Summary(int games, long[] winsBySeat, long[] winsByCharacter, long solved, long turnsToSolve, double seconds) {
+        public double gamesPerSecond() {
+            return games / seconds;
+        }
+        public double averageTurnsToSolve() {
+            return solved == 0 ? 0 : (double) turnsToSolve / solved;
+        }
+    }
+
+    private final int playerCount;
+    private final int maxTurns;
+    private final long seed;
+    private final LongAdder[] winsBySeat;
+    private final LongAdder[] winsByCharacter;
+    private final LongAdder solved = new LongAdder();
+    private final LongAdder turnsToSolve = new LongAdder();
+
+    /**
+     * Constructor for the Tournament class.
+     *
+     * @param playerCount the number of players in every game, 3 or 4
+     * @param maxTurns the turn limit after which a game is abandoned
+     * @param seed the root seed every game's randomness is split from
+     */
+    public Tournament(int playerCount, int maxTurns, long seed) {
+        this.playerCount = playerCount;
+        this.maxTurns = maxTurns;
+        this.seed = seed;
+        this.winsBySeat = newAdders(playerCount);
+        this.winsByCharacter = newAdders(Game.TurnOrder.values().length);
+    }
+
+    /**
+     * Plays a batch of games on a pool and summarises the results.
+     * May only be called once per Tournament.
+     *
+     * @param games the number of games to play
+     * @param pool the pool to play them on
+     * @return the aggregated results
+     */
+    public Summary run(int games, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        pool.invoke(new Shard(0, games, new SplittableRandomSource(seed)));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Summary(games, sums(winsBySeat), sums(winsByCharacter), solved.sum(), turnsToSolve.sum(), seconds);
+    }
+
+    /**
+     * A range of games, split in half until small enough to play on one thread.
+     */
+    private class Shard extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final RandomSource random;
+
+        Shard(int from, int to, RandomSource random) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GAMES_PER_SHARD) {
+                int mid = (from + to) >>> 1;
+                RandomSource upper = random.split();
+                invokeAll(new Shard(from, mid, random), new Shard(mid, to, upper));
+                return;
+            }
+
+            long[] seatWins = new long[playerCount];
+            long[] characterWins = new long[winsByCharacter.length];
+            long shardSolved = 0;
+            long shardTurns = 0;
+            for (int g = from; g < to; g++) {
+                Game game = new Game(random.split());
+                List<PlayerController> controllers = new ArrayList<>();
+                for (int i = 0; i < playerCount; i++) {
+                    controllers.add(new GreedyController(random.split()));
+                }
+                Simulator.Result result = new Simulator(game, controllers).playGame(maxTurns);
+                if (result.winnerSeat() >= 0) {
+                    seatWins[result.winnerSeat()]++;
+                    characterWins[Game.TurnOrder.valueOf(result.winnerCharacter()).ordinal()]++;
+                    shardSolved++;
+                    shardTurns += result.turns();
+                }
+            }
+
+            for (int i = 0; i < seatWins.length; i++) {
+                winsBySeat[i].add(seatWins[i]);
+            }
+            for (int i = 0; i < characterWins.length; i++) {
+                winsByCharacter[i].add(characterWins[i]);
+            }
+            solved.add(shardSolved);
+            turnsToSolve.add(shardTurns);
+        }
+    }
+
+    private static LongAdder[] newAdders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+
+    /**
+     * Runs the same batch with 1, 2, 4, ... threads up to the given parallelism
+     * and reports the throughput and speed-up of each.
+     *
+     * @param args optionally the number of games, the number of players, the maximum parallelism, then the seed
+     */
+    public static void main(String... args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int playerCount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int maxParallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        // Warm up the JIT so the single-threaded baseline is not penalised
+        new Tournament(playerCount, 10000, seed).run(Math.min(games, 20000), ForkJoinPool.commonPool());
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < maxParallelism; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxParallelism);
+
+        double baseline = 0;
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            Summary summary = new Tournament(playerCount, 10000, seed).run(games, pool);
+            pool.shutdown();
+            if (threads == 1) {
+                baseline = summary.gamesPerSecond();
+            }
+            System.out.printf("%2d threads: %.0f games/s (x%.2f), %d solved in %.1f turns on average, wins by seat %s, by character %s%n",
+                    threads, summary.gamesPerSecond(), summary.gamesPerSecond() / baseline, summary.solved(),
+                    summary.averageTurnsToSolve(), Arrays.toString(summary.winsBySeat()), Arrays.toString(summary.winsByCharacter()));
+        }
+    }
+}
@@ -10,6 +10,16 @@ import java.util.*;
  */
 public class Worksheet {
 
+  /**
+   * The line of the worksheet text shown until the player is shown a card, which views may patch in place.
+   */
+  public static final String NO_SHOWN_CARDS = "I have not been shown any cards yet.\n";
+
+  /**
+   * The last line of the worksheet text, which views insert newly shown cards before.
+   */
+  public static final String FOOTER = "/===================/\n";
+
   /**
    * The list of cards in the worksheet.
    */
@@ -20,6 +30,26 @@ public class Worksheet {
    */
   private List<Card> shownCards;
 
+  /**
+   * The cards in the worksheet as a card mask, with the bit of every card set.
+   */
+  private long cardMask;
+
+  /**
+   * The shown cards in the worksheet as a card mask, with the bit of every shown card set.
+   */
+  private long shownMask;
+
+  /**
+   * The text of the worksheet, built the first time it is asked for after a card is added.
+   */
+  private String text;
+
+  /**
+   * What the player can deduce from the guesses and refutations they see, once the cards are dealt.
+   */
+  private Deduction deduction;
+
   /**
    * Constructor for the `Worksheet` class.
    * Initializes the `cards` and `shownCards` lists.
@@ -35,42 +65,134 @@ public class Worksheet {
    * @param card The card to be added.
    */
   public void addCard(Card card) {
-    if (!cards.contains(card)) {
+    if ((cardMask & card.getMask()) == 0) {
+      cardMask |= card.getMask();
       cards.add(card);
+      text = null;
     }
   }
 
+  /**
+   * Removes every card from the worksheet, both the player's own and those shown to them.
+   */
+  public void clear() {
+    cards.clear();
+    shownCards.clear();
+    cardMask = 0;
+    shownMask = 0;
+    text = null;
+  }
+
   /**
    * Adds a shown card to the list of shown cards in the worksheet.
    *
    * @param card The shown card to be added.
    */
   public void addShownCard(Card card) {
-    if (!shownCards.contains(card)) {
+    if ((shownMask & card.getMask()) == 0) {
+      shownMask |= card.getMask();
       shownCards.add(card);
+      text = null;
     }
   }
 
+  /**
+   * Gets the cards in the worksheet, i.e. the cards in the player's hand.
+   *
+   * @return The list of cards.
+   */
+  public List<Card> getCards() {
+    return cards;
+  }
+
+  /**
+   * Gets the cards that have been shown to the player by refuters.
+   *
+   * @return The list of shown cards.
+   */
+  public List<Card> getShownCards() {
+    return shownCards;
+  }
+
+  /**
+   * Gets the cards in the worksheet as a card mask.
+   *
+   * @return The mask of the player's own cards.
+   */
+  public long getCardMask() {
+    return cardMask;
+  }
+
+  /**
+   * Gets the deduction engine kept for the player.
+   *
+   * @return The engine, or null if the cards have not been dealt.
+   */
+  public Deduction getDeduction() {
+    return deduction;
+  }
+
+  /**
+   * Sets the deduction engine kept for the player, when the cards are dealt.
+   *
+   * @param aDeduction The engine.
+   */
+  public void setDeduction(Deduction aDeduction) {
+    deduction = aDeduction;
+  }
+
+  /**
+   * Gets the shown cards as a card mask.
+   *
+   * @return The mask of the cards shown to the player.
+   */
+  public long getShownMask() {
+    return shownMask;
+  }
+
+  /**
+   * Gets every card the player knows is not part of the murder.
+   *
+   * @return The mask of the player's own and shown cards.
+   */
+  public long getKnownMask() {
+    return cardMask | shownMask;
+  }
+
   /**
    * Returns a string representation of the worksheet, including the list of cards and shown cards.
+   * The text is cached until the next card is added.
    *
    * @return A string representation of the worksheet.
    */
   public String toString() {
-    String res = "\n/======MY CARDS=====/\n";
-    for (Card c : cards) {
-      res += String.format("%s card: %s\n", c.getType(), c.getName());
-    }
-    res += "/====SHOWN CARDS====/\n";
-    if (!shownCards.isEmpty()) {
-      for (Card c : shownCards) {
-        res += String.format("%s card: %s\n", c.getType(), c.getName());
+    if (text == null) {
+      StringBuilder res = new StringBuilder("\n/======MY CARDS=====/\n");
+      for (Card c : cards) {
+        res.append(cardLine(c));
       }
-    } else {
-      res += ("I have not been shown any cards yet.\n");
+      res.append("/====SHOWN CARDS====/\n");
+      if (!shownCards.isEmpty()) {
+        for (Card c : shownCards) {
+          res.append(cardLine(c));
+        }
+      } else {
+        res.append(NO_SHOWN_CARDS);
+      }
+      res.append(FOOTER);
+      text = res.toString();
     }
-    res += "/===================/\n";
-    return res;
+    return text;
+  }
+
+  /**
+   * Returns the line of the worksheet text that lists a card.
+   *
+   * @param card The card.
+   * @return The line, ending in a newline.
+   */
+  public static String cardLine(Card card) {
+    return card.getType() + " card: " + card.getName() + "\n";
   }
 
   /**